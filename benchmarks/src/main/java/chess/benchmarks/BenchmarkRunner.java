@@ -0,0 +1,25 @@
+package chess.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always attached, so every result comes with
+ * its allocation rate (gc.alloc.rate.norm is bytes allocated per operation).
+ * <p>
+ * Accepts the usual JMH command line options, for example a regular expression to pick
+ * which benchmarks to run: {@code java -jar benchmarks/target/benchmarks.jar GameBenchmark}
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
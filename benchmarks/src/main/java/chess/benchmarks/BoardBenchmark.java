@@ -0,0 +1,46 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.perft.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing, comparing and copying a full board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private ChessBoard board;
+    private ChessBoard sameBoard;
+    private ChessBoard copy;
+
+    @Setup
+    public void setUp() {
+        board = Perft.TestPosition.KIWIPETE.createGame().getBoard();
+        sameBoard = Perft.TestPosition.KIWIPETE.createGame().getBoard();
+        copy = new ChessBoard();
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public boolean boardEquals() {
+        return board.equals(sameBoard);
+    }
+
+    @Benchmark
+    public ChessBoard setBoard() {
+        copy.setBoard(board);
+        return copy;
+    }
+}
@@ -0,0 +1,76 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.LegalMoveGenerator;
+import chess.MoveBuffer;
+import chess.PackedMove;
+import chess.perft.Perft;
+import chess.search.Evaluator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring positions from the piece-square scores the board keeps up to date with
+ * adding up every piece each time. Every benchmark scores each position reached by one
+ * move from each of the perft test positions, like a search scoring its leaves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private ChessBoard[] boards;
+    private MoveBuffer[] moves;
+
+    @Setup
+    public void setUp() {
+        Perft.TestPosition[] positions = Perft.TestPosition.values();
+        boards = new ChessBoard[positions.length];
+        moves = new MoveBuffer[positions.length];
+
+        for (int i = 0; i < positions.length; ++i) {
+            boards[i] = positions[i].createGame().getBoard();
+            moves[i] = new MoveBuffer();
+            new LegalMoveGenerator(boards[i], boards[i].getTeamTurn()).generate(moves[i]);
+        }
+    }
+
+    @Benchmark
+    public void incremental(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; ++i) {
+            for (int j = 0; j < moves[i].size(); ++j) {
+                boards[i].makeMove(PackedMove.toChessMove(moves[i].get(j)));
+                blackhole.consume(Evaluator.evaluate(boards[i]));
+                boards[i].unmakeMove();
+            }
+        }
+    }
+
+    @Benchmark
+    public void fromScratch(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; ++i) {
+            for (int j = 0; j < moves[i].size(); ++j) {
+                boards[i].makeMove(PackedMove.toChessMove(moves[i].get(j)));
+                blackhole.consume(Evaluator.evaluateFromScratch(boards[i]));
+                boards[i].unmakeMove();
+            }
+        }
+    }
+
+    @Benchmark
+    public void makeUnmakeOnly(Blackhole blackhole) {
+        // The cost of reaching the positions, to subtract from the other two
+        for (int i = 0; i < boards.length; ++i) {
+            for (int j = 0; j < moves[i].size(); ++j) {
+                boards[i].makeMove(PackedMove.toChessMove(moves[i].get(j)));
+                blackhole.consume(boards[i]);
+                boards[i].unmakeMove();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.MoveBuffer;
+import chess.perft.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the move validation and game state checks of ChessGame, once with each way of
+ * finding valid moves
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_4"})
+    public Perft.TestPosition position;
+
+    @Param({"LEGAL_MOVE_GENERATOR", "TRIAL_MOVES"})
+    public ChessGame.MoveValidation moveValidation;
+
+    private ChessGame game;
+    private ChessPosition[] pieces;
+    private final MoveBuffer buffer = new MoveBuffer();
+
+    @Setup
+    public void setUp() {
+        game = position.createGame();
+        game.setMoveValidation(moveValidation);
+
+        ArrayList<ChessPosition> found = game.getBoard().findAllPieces(game.getTeamTurn());
+        pieces = found.toArray(new ChessPosition[0]);
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition piece : pieces) {
+            blackhole.consume(game.validMoves(piece));
+        }
+    }
+
+    @Benchmark
+    public int generateAllLegalMoves() {
+        return game.generateAllLegalMoves(game.getTeamTurn(), buffer);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+}
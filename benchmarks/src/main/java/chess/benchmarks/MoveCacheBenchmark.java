@@ -0,0 +1,63 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.perft.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering valid move requests from the move cache with generating them every
+ * time. Every benchmark asks for the moves of each piece of the team to move twice, like a
+ * client highlighting a piece and then hovering over it, in each perft test position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveCacheBenchmark {
+
+    private ChessGame[] cached;
+    private ChessGame[] uncached;
+    private Collection<ChessPosition>[] pieces;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Perft.TestPosition[] positions = Perft.TestPosition.values();
+        cached = new ChessGame[positions.length];
+        uncached = new ChessGame[positions.length];
+        pieces = new Collection[positions.length];
+
+        for (int i = 0; i < positions.length; ++i) {
+            cached[i] = positions[i].createGame();
+            uncached[i] = positions[i].createGame();
+            uncached[i].setMoveCache(null);
+            pieces[i] = cached[i].getBoard().findAllPieces(cached[i].getTeamTurn());
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        askTwice(cached, blackhole);
+    }
+
+    @Benchmark
+    public void uncached(Blackhole blackhole) {
+        askTwice(uncached, blackhole);
+    }
+
+    private void askTwice(ChessGame[] games, Blackhole blackhole) {
+        for (int i = 0; i < games.length; ++i) {
+            for (ChessPosition position : pieces[i]) {
+                blackhole.consume(games[i].validMoves(position));
+                blackhole.consume(games[i].validMoves(position));
+            }
+        }
+    }
+}
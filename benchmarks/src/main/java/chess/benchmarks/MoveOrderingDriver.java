@@ -0,0 +1,42 @@
+package chess.benchmarks;
+
+import chess.perft.Perft;
+import chess.search.Search;
+import chess.search.TranspositionTable;
+
+/**
+ * Prints how many nodes the search visits with and without move ordering, searching each
+ * perft test position to a fixed depth:
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.MoveOrderingDriver [depth]}
+ */
+public class MoveOrderingDriver {
+
+    /**
+     * @param args the depth to search to (default 6)
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+
+        System.out.printf("%-12s %16s %16s %8s%n", "position", "generated", "heuristic", "ratio");
+
+        long totalGenerated = 0;
+        long totalHeuristic = 0;
+        for (Perft.TestPosition position : Perft.TestPosition.values()) {
+            long generated = countNodes(position, depth, Search.MoveOrdering.GENERATED);
+            long heuristic = countNodes(position, depth, Search.MoveOrdering.HEURISTIC);
+            totalGenerated += generated;
+            totalHeuristic += heuristic;
+
+            System.out.printf("%-12s %,16d %,16d %7.2fx%n", position, generated, heuristic, (double) generated / heuristic);
+        }
+
+        System.out.printf("%-12s %,16d %,16d %7.2fx%n", "total", totalGenerated, totalHeuristic,
+                (double) totalGenerated / totalHeuristic);
+    }
+
+    private static long countNodes(Perft.TestPosition position, int depth, Search.MoveOrdering ordering) {
+        Search search = new Search(position.createGame(), new TranspositionTable(64));
+        search.setMoveOrdering(ordering);
+        return search.search(depth, 0, 0).getNodes();
+    }
+}
@@ -0,0 +1,106 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.MoveBuffer;
+import chess.PackedMove;
+import chess.book.OpeningBook;
+import chess.book.OpeningBookBuilder;
+import chess.book.PolyglotKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up positions in a memory-mapped opening book, from one thread and from
+ * several threads sharing the book. The book is built from random games, and every
+ * position looked up is in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpeningBookBenchmark {
+
+    @Param({"20000"})
+    public int games;
+
+    private Path path;
+    private OpeningBook book;
+    private ChessGame[] positions;
+    private long[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() throws IOException, InvalidMoveException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(12);
+        Random random = new Random(1);
+        MoveBuffer buffer = new MoveBuffer();
+        ArrayList<ChessGame> found = new ArrayList<>();
+
+        for (int i = 0; i < games; ++i) {
+            ChessGame game = new ChessGame();
+            ArrayList<ChessMove> moves = new ArrayList<>();
+
+            for (int ply = 0; ply < 12 && game.generateAllLegalMoves(game.getTeamTurn(), buffer) > 0; ++ply) {
+                ChessMove move = PackedMove.toChessMove(buffer.get(random.nextInt(buffer.size())));
+                game.makeMove(move);
+                moves.add(move);
+            }
+
+            builder.addMoves(moves, "1/2-1/2");
+
+            // The last position of each game has no book move, so keep the one before it
+            if (i % 20 == 0) {
+                game.unmakeMove();
+                found.add(game);
+            }
+        }
+
+        path = Files.createTempFile("book", ".bin");
+        builder.write(path);
+        book = OpeningBook.open(path);
+
+        positions = found.toArray(new ChessGame[0]);
+        keys = new long[positions.length];
+        for (int i = 0; i < positions.length; ++i) {
+            keys[i] = PolyglotKey.of(positions[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public int find(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % keys.length;
+        return book.find(keys[cursor.next]);
+    }
+
+    @Benchmark
+    public ChessMove bestMove(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % positions.length;
+        return book.bestMove(positions[cursor.next]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int findFromFourThreads(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % keys.length;
+        return book.find(keys[cursor.next]);
+    }
+}
@@ -0,0 +1,41 @@
+package chess.benchmarks;
+
+import chess.perft.ParallelPerft;
+import chess.perft.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures counting the positions 4 moves from Kiwipete with different numbers of
+ * fork-join threads, to show how the tree walk scales with cores
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelPerftBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long kiwipeteDepth4() {
+        return new ParallelPerft(Perft.TestPosition.KIWIPETE.createGame(), pool).count(4);
+    }
+}
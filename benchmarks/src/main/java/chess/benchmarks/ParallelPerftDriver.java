@@ -0,0 +1,67 @@
+package chess.benchmarks;
+
+import chess.perft.ParallelPerft;
+import chess.perft.Perft;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counts every test position with {@link ParallelPerft} on 1 thread and then on every thread,
+ * or checks every line of an EPD perft suite, exiting with status 1 if any count is wrong:
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.ParallelPerftDriver [depth] [suite.epd]}
+ */
+public class ParallelPerftDriver {
+
+    /**
+     * @param args an optional depth (default 5), and optionally a perft suite file to check
+     *             up to that depth instead of the test positions
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        ArrayList<ParallelPerft.Check> checks = new ArrayList<>();
+        if (args.length > 1) {
+            for (String line : Files.readAllLines(Path.of(args[1]))) {
+                if (!line.isBlank()) { checks.addAll(ParallelPerft.Check.parseEpd(line, depth)); }
+            }
+        } else {
+            for (Perft.TestPosition position : Perft.TestPosition.values()) {
+                int positionDepth = Math.min(depth, position.maxKnownDepth());
+                checks.add(new ParallelPerft.Check(position.getFen(), positionDepth, position.expectedCount(positionDepth)));
+            }
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleSeconds = 0;
+
+        for (int threads : cores == 1 ? new int[]{1} : new int[]{1, cores}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            long start = System.nanoTime();
+            long[] counts = ParallelPerft.validate(checks, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            long nodes = 0;
+            int mismatches = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                nodes += counts[i];
+                if (counts[i] != checks.get(i).getExpected()) {
+                    ++mismatches;
+                    System.out.printf("MISMATCH %s depth %d: %,d, expected %,d%n",
+                            checks.get(i).getFen(), checks.get(i).getDepth(), counts[i], checks.get(i).getExpected());
+                }
+            }
+
+            if (threads == 1) { singleSeconds = seconds; }
+            System.out.printf("%d threads: %d checks, %,d nodes in %.2f s (%,.0f nodes/s, %.2fx), %d mismatched%n",
+                    threads, checks.size(), nodes, seconds, nodes / seconds, singleSeconds / seconds, mismatches);
+
+            if (mismatches > 0) { System.exit(1); }
+        }
+    }
+}
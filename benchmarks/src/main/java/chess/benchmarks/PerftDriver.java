@@ -0,0 +1,68 @@
+package chess.benchmarks;
+
+import chess.ChessMove;
+import chess.SlidingAttacks;
+import chess.perft.Perft;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs perft on the test positions from the command line and compares each count with the
+ * published one, exiting with status 1 if any differs:
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.PerftDriver [position] [depth] [divide]}
+ */
+public class PerftDriver {
+
+    /**
+     * @param args an optional position name (default every position), an optional depth
+     *             (default the deepest published count) and "divide" to show counts per first move
+     */
+    public static void main(String[] args) {
+        ArrayList<Perft.TestPosition> positions = new ArrayList<>();
+        int depth = -1;
+        boolean divide = false;
+
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("divide")) {
+                divide = true;
+            } else if (Character.isDigit(arg.charAt(0))) {
+                depth = Integer.parseInt(arg);
+            } else {
+                positions.add(Perft.TestPosition.valueOf(arg.toUpperCase()));
+            }
+        }
+        if (positions.isEmpty()) { positions.addAll(List.of(Perft.TestPosition.values())); }
+
+        System.out.printf("Sliding attack tables built in %.1f ms%n", SlidingAttacks.getTableBuildNanos() / 1e6);
+
+        boolean allMatched = true;
+        for (Perft.TestPosition position : positions) {
+            int positionDepth = depth == -1 ? position.maxKnownDepth() : depth;
+            Perft perft = new Perft(position.createGame());
+
+            long start = System.nanoTime();
+            long nodes;
+            if (divide) {
+                nodes = 0;
+                for (Map.Entry<ChessMove, Long> entry : perft.divide(positionDepth).entrySet()) {
+                    System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+                    nodes += entry.getValue();
+                }
+            } else {
+                nodes = perft.count(positionDepth);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long expected = position.expectedCount(positionDepth);
+            String result = expected == -1 ? "(no published count)" : nodes == expected ? "OK" : "MISMATCH, expected " + expected;
+            if (expected != -1 && nodes != expected) { allMatched = false; }
+
+            System.out.printf("%-10s depth %d: %,d nodes in %.2f s (%,.0f nodes/s) %s%n",
+                    position, positionDepth, nodes, seconds, nodes / Math.max(seconds, 1e-9), result);
+        }
+
+        if (!allMatched) { System.exit(1); }
+    }
+}
@@ -0,0 +1,57 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.perft.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ChessPiece.pieceMoves for every piece of one type in the Kiwipete position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType pieceType;
+
+    private ChessBoard board;
+    private ChessPosition[] positions;
+    private ChessPiece[] pieces;
+
+    @Setup
+    public void setUp() {
+        board = Perft.TestPosition.KIWIPETE.createGame().getBoard();
+
+        // Find every piece of the chosen type on both teams
+        ArrayList<ChessPosition> found = new ArrayList<>();
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            for (ChessPosition position : board.findAllPieces(team)) {
+                if (board.getPiece(position).getPieceType() == pieceType) { found.add(position); }
+            }
+        }
+
+        positions = found.toArray(new ChessPosition[0]);
+        pieces = new ChessPiece[positions.length];
+        for (int i = 0; i < positions.length; ++i) {
+            pieces[i] = board.getPiece(positions[i]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < pieces.length; ++i) {
+            blackhole.consume(pieces[i].pieceMoves(board, positions[i]));
+        }
+    }
+}
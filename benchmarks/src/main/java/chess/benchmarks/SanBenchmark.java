@@ -0,0 +1,83 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.MoveBuffer;
+import chess.perft.Perft;
+import chess.pgn.San;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing moves in SAN, which happens once for every move of every live game.
+ * Every benchmark handles each legal move of each perft test position. generateAll is what
+ * finding the start square from every legal move would cost on top of the rest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanBenchmark {
+
+    private ChessGame[] games;
+    private ArrayList<ArrayList<ChessMove>> moves;
+    private ArrayList<ArrayList<String>> sans;
+    private final MoveBuffer buffer = new MoveBuffer();
+
+    @Setup
+    public void setUp() {
+        Perft.TestPosition[] positions = Perft.TestPosition.values();
+        games = new ChessGame[positions.length];
+        moves = new ArrayList<>();
+        sans = new ArrayList<>();
+
+        for (int i = 0; i < positions.length; ++i) {
+            games[i] = positions[i].createGame();
+            ArrayList<ChessMove> gameMoves = new ArrayList<>();
+            ArrayList<String> gameSans = new ArrayList<>();
+
+            for (ChessPosition piece : games[i].getBoard().findAllPieces(games[i].getTeamTurn())) {
+                for (ChessMove move : games[i].validMoves(piece)) {
+                    gameMoves.add(move);
+                    gameSans.add(San.write(games[i], move));
+                }
+            }
+
+            moves.add(gameMoves);
+            sans.add(gameSans);
+        }
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        for (int i = 0; i < games.length; ++i) {
+            for (ChessMove move : moves.get(i)) {
+                blackhole.consume(San.write(games[i], move));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (int i = 0; i < games.length; ++i) {
+            for (String san : sans.get(i)) {
+                blackhole.consume(San.parse(games[i], san));
+            }
+        }
+    }
+
+    @Benchmark
+    public void generateAll(Blackhole blackhole) {
+        for (int i = 0; i < games.length; ++i) {
+            for (int j = 0; j < moves.get(i).size(); ++j) {
+                blackhole.consume(games[i].generateAllLegalMoves(games[i].getTeamTurn(), buffer));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.search.Search;
+import chess.search.SearchResult;
+
+import java.util.List;
+
+/**
+ * Searches a position from the command line and prints the result:
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.SearchDriver [millis] [fen]}
+ */
+public class SearchDriver {
+
+    /**
+     * @param args an optional time limit in milliseconds (default 5000) and an optional FEN
+     *             string (default the start position)
+     */
+    public static void main(String[] args) {
+        long timeLimit = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        ChessGame game = args.length > 1 ? ChessGame.fromFen(String.join(" ", List.of(args).subList(1, args.length))) :
+                new ChessGame();
+
+        SearchResult result = new Search(game).search(Search.MAX_PLY - 1, timeLimit, 0);
+        System.out.println("best move " + result.getBestMove());
+        System.out.println(result);
+    }
+}
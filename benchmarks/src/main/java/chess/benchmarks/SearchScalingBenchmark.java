@@ -0,0 +1,43 @@
+package chess.benchmarks;
+
+import chess.perft.Perft;
+import chess.search.ParallelSearch;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the parallel search takes to reach a fixed depth with different
+ * numbers of threads. Each run starts from an empty transposition table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchScalingBenchmark {
+
+    @Param({"KIWIPETE", "POSITION_4"})
+    public Perft.TestPosition position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"6"})
+    public int depth;
+
+    private TranspositionTable table;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        table = new TranspositionTable(64);
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return new ParallelSearch(position.createGame(), threads, table).search(depth, 0, 0);
+    }
+}
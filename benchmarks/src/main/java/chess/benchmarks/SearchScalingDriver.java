@@ -0,0 +1,47 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.perft.Perft;
+import chess.search.ParallelSearch;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+
+/**
+ * Prints how the parallel search scales with more threads, by timing a search of each test
+ * position to a fixed depth with 1, 2, 4, ... threads. {@link SearchScalingBenchmark}
+ * measures the same thing more carefully; this gives a quick table:
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.SearchScalingDriver [threads] [depth]}
+ */
+public class SearchScalingDriver {
+
+    /**
+     * @param args the most threads to try (default the number of processors) and the depth
+     *             to search each position to (default 7)
+     */
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+
+        // Warm up the JIT compiler so the single thread run isn't penalized
+        new ParallelSearch(new ChessGame(), 1).search(5, 0, 0);
+
+        double baseSeconds = 0;
+        System.out.printf("%-8s %10s %16s %14s %8s%n", "threads", "seconds", "nodes", "nodes/s", "speedup");
+
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads)) {
+            long nodes = 0;
+            long nanos = 0;
+
+            for (Perft.TestPosition position : Perft.TestPosition.values()) {
+                SearchResult result = new ParallelSearch(position.createGame(), threads, new TranspositionTable(64)).search(depth, 0, 0);
+                nodes += result.getNodes();
+                nanos += result.getElapsedNanos();
+            }
+
+            double seconds = nanos / 1e9;
+            if (threads == 1) { baseSeconds = seconds; }
+
+            System.out.printf("%-8d %10.2f %,16d %,14.0f %7.2fx%n", threads, seconds, nodes, nodes / seconds, baseSeconds / seconds);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package chess;
+
+/**
+ * Precomputed masks of the squares attacked by the pieces that always attack the same
+ * squares (knights, kings and pawns), indexed by the square the piece stands on
+ */
+final class AttackTables {
+
+    static final long[] KNIGHT = new long[64];
+    static final long[] KING = new long[64];
+
+    // Indexed by team color ordinal, then square. Pawns only attack diagonally forward.
+    static final long[][] PAWN = new long[2][64];
+
+    // Indexed by two squares. BETWEEN holds the squares strictly between them and LINE holds
+    // the whole line through both, edge to edge. Both are empty if the squares don't share a line.
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    static final int[][] STRAIGHT_DIRECTIONS = {
+            {1,0},{-1,0},{0,1},{0,-1}
+    };
+
+    static final int[][] DIAGONAL_DIRECTIONS = {
+            {1,1},{-1,1},{-1,-1},{1,-1}
+    };
+
+    private static final int[][] KNIGHT_JUMPS = {
+            {1,2},{1,-2},{-1,2},{-1,-2},{2,1},{2,-1},{-2,1},{-2,-1}
+    };
+
+    private static final int[][] KING_STEPS = {
+            {-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1}
+    };
+
+    static {
+        for (int square = 0; square < 64; ++square) {
+            KNIGHT[square] = offsetMask(square, KNIGHT_JUMPS);
+            KING[square] = offsetMask(square, KING_STEPS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = offsetMask(square, new int[][] {{1,-1},{1,1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = offsetMask(square, new int[][] {{-1,-1},{-1,1}});
+
+            fillLines(square, STRAIGHT_DIRECTIONS);
+            fillLines(square, DIAGONAL_DIRECTIONS);
+        }
+    }
+
+    private AttackTables() {
+
+    }
+
+    /**
+     * Fills in BETWEEN and LINE for a square and every square on its lines in the given directions
+     */
+    private static void fillLines(int square, int[][] directions) {
+        for (int i = 0; i < directions.length; ++i) {
+            long line = ray(square, directions[i][0], directions[i][1]) |
+                    ray(square, -directions[i][0], -directions[i][1]) | Bitboard.bit(square);
+
+            // Walk outward, remembering the squares passed on the way
+            long passed = 0;
+            int row = Bitboard.row(square) + directions[i][0];
+            int col = Bitboard.column(square) + directions[i][1];
+
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                int target = Bitboard.squareIndex(row, col);
+
+                BETWEEN[square][target] = passed;
+                LINE[square][target] = line;
+
+                passed |= Bitboard.bit(target);
+                row += directions[i][0];
+                col += directions[i][1];
+            }
+        }
+    }
+
+    /**
+     * @return a mask of every square from the square (not included) to the edge of the board in one direction
+     */
+    private static long ray(int square, int rowStep, int colStep) {
+        long mask = 0;
+        int row = Bitboard.row(square) + rowStep;
+        int col = Bitboard.column(square) + colStep;
+
+        while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+            mask |= Bitboard.bit(Bitboard.squareIndex(row, col));
+            row += rowStep;
+            col += colStep;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Builds a mask of every square reached by adding an offset to the square,
+     * skipping any that land off the board
+     */
+    private static long offsetMask(int square, int[][] offsets) {
+        long mask = 0;
+
+        for (int i = 0; i < offsets.length; ++i) {
+            int row = Bitboard.row(square) + offsets[i][0];
+            int col = Bitboard.column(square) + offsets[i][1];
+
+            if (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                mask |= Bitboard.bit(Bitboard.squareIndex(row, col));
+            }
+        }
+
+        return mask;
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit board masks
+ * <p>
+ * Square 0 is a1 (row 1, column 1) and square 63 is h8, so a square's index is
+ * (row - 1) * 8 + (column - 1) and bit n of a mask represents square n.
+ */
+final class Bitboard {
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+    static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private Bitboard() {
+
+    }
+
+    /**
+     * @return the square index of a position on the board
+     */
+    static int squareIndex(ChessPosition position) {
+        return position.index();
+    }
+
+    /**
+     * @return the square index of a row and column on the board (both starting at 1)
+     */
+    static int squareIndex(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return the row (1-8) of a square index
+     */
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the column (1-8) of a square index
+     */
+    static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return the shared position for a square index
+     */
+    static ChessPosition toPosition(int square) {
+        return ChessPosition.of(square);
+    }
+
+    /**
+     * @return a mask with only the given square set
+     */
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Finds which of the twelve piece bitboards holds a given kind of piece
+     *
+     * @return an index from 0 to 11, white pieces first
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -1,8 +1,8 @@
 package chess;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -12,7 +12,55 @@ import java.util.Objects;
  */
 public class ChessBoard {
 
-    private ChessPiece[][] squares = new ChessPiece[8][8];
+    /**
+     * Bits of a castling rights mask
+     */
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    // The castling rights kept when a piece moves from or to each square. Moving the king
+    // or a rook, or capturing a rook, gives up the rights that need it.
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, PositionState.CASTLING_MASK);
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
+    private ChessPiece[] squares = new ChessPiece[64];
+
+    // One bitboard for every color and type of piece, plus occupancy masks for each team
+    private long[] pieceBitboards = new long[12];
+    private long[] teamOccupancy = new long[2];
+    private long occupied;
+
+    // Castling rights, en passant column, turn and halfmove clock (see PositionState)
+    private int state;
+    private int fullmoveNumber = 1;
+
+    // Zobrist key of where the pieces stand, and of the rest of the position state
+    private long pieceKey;
+    private long stateKey;
+
+    // Sums of the piece-square values of every piece, from White's point of view, and the
+    // game phase (see PieceSquareTables)
+    private int middlegameScore;
+    private int endgameScore;
+    private int gamePhase;
+
+    // Zobrist keys of the positions before each move made with makeMove, oldest first
+    private long[] keyHistory = new long[32];
+    private int historySize;
+
+    // Moves made with makeMove that can still be taken back, most recent last
+    private transient ArrayList<MoveUndo> undoStack = new ArrayList<>();
 
     public ChessBoard() {
         
@@ -25,18 +73,8 @@ public class ChessBoard {
      */
     @Override
     public int hashCode() {
-        int code = 0;
-
-        // Loop through every square on the board
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                // If the square contains a piece, add to the hash code based on the code of the piece
-                // and the coordinate. If it is null, add a hash code based just on the coordinate.
-                code += (squares[i][j] != null ? squares[i][j].hashCode() : 71 ) * (i + 1) * (j + 1);
-            }
-        }
-
-        return code;
+        // Boards are equal when their pieces match, so only hash where the pieces stand
+        return Long.hashCode(pieceKey);
     }
 
     /**
@@ -51,31 +89,8 @@ public class ChessBoard {
         if (obj == null || getClass() != obj.getClass()) { return false; }
         ChessBoard that = (ChessBoard) obj;
 
-        // Check if all pieces are the same
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                // Get piece we want to compare with
-                ChessPiece thatPiece = that.getPiece(new ChessPosition(i+1,j+1));
-
-                // If one piece is null and the other isn't, return false;
-                if ((squares[i][j] == null && thatPiece != null) || (squares[i][j] != null && thatPiece == null)) {
-                    return false;
-                }
-
-                // If both pieces are null, no need to compare pieces
-                if (squares[i][j] == null && thatPiece == null) {
-                    continue;
-                }
-
-                // If both pieces are not null, return false if they are not the same piece
-                if (!squares[i][j].equals(thatPiece)) {
-                    return false;
-                }
-            }
-        }
-
-        // Returns true when no differences were detected
-        return true;
+        // The boards are identical when every kind of piece occupies the same squares
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     /**
@@ -87,18 +102,20 @@ public class ChessBoard {
     public String toString() {
         String str = "";
 
-        for (int i = squares.length-1; i >= 0; --i) {
+        for (int i = 7; i >= 0; --i) {
             str += "|";
-            for (int j = 0; j < squares.length; ++j) {
+            for (int j = 0; j < 8; ++j) {
+                ChessPiece piece = squares[i * 8 + j];
+
                 // Add empty space if null
-                if (squares[i][j] == null) {
+                if (piece == null) {
                     str += " |";
                     continue;
                 }
 
                 // Find string representation of piece
                 String pieceStr = "";
-                switch (squares[i][j].getPieceType()) {
+                switch (piece.getPieceType()) {
                     case KING -> pieceStr = "K";
                     case QUEEN -> pieceStr = "Q";
                     case ROOK -> pieceStr = "R";
@@ -108,7 +125,7 @@ public class ChessBoard {
                 }
 
                 // Convert to lowercase if it is a black piece
-                if (squares[i][j].getTeamColor() == ChessGame.TeamColor.BLACK) { pieceStr = pieceStr.toLowerCase(); }
+                if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) { pieceStr = pieceStr.toLowerCase(); }
 
                 // Add piece to string
                 str += pieceStr + "|";
@@ -126,7 +143,19 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = Bitboard.squareIndex(position);
+
+        // Take whatever was on the square off first so the bitboards stay consistent
+        clearSquare(square);
+
+        // Store the shared instance so every board holds the same twelve pieces
+        if (piece != null) { placePiece(square, ChessPiece.of(piece.getTeamColor(), piece.getPieceType())); }
+
+        // A king or rook put on its starting square hasn't moved, so it can castle again
+        int rights = PositionState.castlingRights(state) | (piece == null ? 0 : startingRights(square, piece));
+        state = PositionState.withCastlingRights(state, rights & homeRights());
+
+        updateStateKey();
     }
 
     /**
@@ -135,7 +164,10 @@ public class ChessBoard {
      * @param position where to remove the piece from
      */
     public void removePiece(ChessPosition position) {
-        squares[position.getRow()-1][position.getColumn()-1] = null;
+        clearSquare(Bitboard.squareIndex(position));
+
+        state = PositionState.withCastlingRights(state, PositionState.castlingRights(state) & homeRights());
+        updateStateKey();
     }
 
     /**
@@ -146,7 +178,246 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        return squares[Bitboard.squareIndex(position)];
+    }
+
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param square The square index (0 is a1, 63 is h8) to get the piece from
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Gets the squares occupied by one kind of piece
+     *
+     * @param teamColor the color of the pieces
+     * @param type the type of the pieces
+     * @return a mask with a bit set for each square holding that piece
+     */
+    public long getPieces(ChessGame.TeamColor teamColor, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboard.pieceIndex(teamColor, type)];
+    }
+
+    /**
+     * @return a mask with a bit set for each square holding a piece of the given team
+     */
+    public long getTeamOccupancy(ChessGame.TeamColor teamColor) {
+        return teamOccupancy[teamColor.ordinal()];
+    }
+
+    /**
+     * @return a mask with a bit set for each square holding any piece
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @return a copy of the bitboard of every color and type of piece, in the order of
+     * Bitboard.pieceIndex
+     */
+    long[] copyPieceBitboards() {
+        return pieceBitboards.clone();
+    }
+
+    /**
+     * @return whether the pieces stand exactly where a copy from {@link #copyPieceBitboards} says
+     */
+    boolean hasPieceBitboards(long[] bitboards) {
+        return Arrays.equals(pieceBitboards, bitboards);
+    }
+
+    /**
+     * @return the turn, castling rights and en passant column packed as in PositionState,
+     * without the halfmove clock, which no move depends on
+     */
+    int getMoveState() {
+        return PositionState.withHalfmoveClock(state, 0);
+    }
+
+    /**
+     * Gets the Zobrist key of the position: a 64-bit number that is the same whenever the
+     * pieces, castling rights, en passant capture and turn are the same. It is kept up to
+     * date as pieces are added, removed and moved, so reading it costs nothing.
+     *
+     * @return the Zobrist key of the position
+     */
+    public long getZobristKey() {
+        return pieceKey ^ stateKey;
+    }
+
+    /**
+     * Gets the middlegame piece-square score: the material and placement of White's pieces
+     * minus Black's (see PieceSquareTables). Kept up to date as pieces move, like the
+     * Zobrist key.
+     *
+     * @return the middlegame score from White's point of view
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return the endgame piece-square score from White's point of view
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the game phase: 24 with every knight, bishop, rook and queen on the board,
+     * falling towards 0 as they are traded off
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * @return which team's turn it is on this board
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return PositionState.teamTurn(state);
+    }
+
+    /**
+     * Sets which team's turn it is on this board
+     *
+     * @param team the team whose turn it is
+     */
+    public void setTeamTurn(ChessGame.TeamColor team) {
+        state = PositionState.withTeamTurn(state, team);
+        updateStateKey();
+    }
+
+    /**
+     * Finds which castling moves are still possible. Rights are given up when the king or
+     * rook moves or the rook is captured, and given back when one is added to its starting square.
+     *
+     * @return a mask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+     */
+    public int getCastlingRights() {
+        return PositionState.castlingRights(state);
+    }
+
+    /**
+     * @return the number of halfmoves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return PositionState.halfmoveClock(state);
+    }
+
+    /**
+     * Sets which castling moves are still possible. Rights whose king and rook aren't on
+     * their starting squares are left off.
+     *
+     * @param rights a mask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+     */
+    public void setCastlingRights(int rights) {
+        state = PositionState.withCastlingRights(state, rights & homeRights());
+        updateStateKey();
+    }
+
+    /**
+     * Sets the number of halfmoves since the last capture or pawn move
+     *
+     * @param halfmoves the new halfmove clock
+     */
+    public void setHalfmoveClock(int halfmoves) {
+        state = PositionState.withHalfmoveClock(state, halfmoves);
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and going up after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Sets the number of the current full move
+     *
+     * @param fullmoveNumber the new fullmove number, starting at 1
+     */
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Marks the pawn on a column as just having moved 2 spaces, so the team whose turn it is
+     * can capture it en passant
+     *
+     * @param column the column of the pawn (1-8), or 0 for none
+     */
+    void setEnPassantColumn(int column) {
+        state = PositionState.withEnPassantColumn(state, column);
+        updateStateKey();
+    }
+
+    /**
+     * @return the castling rights whose king and rook are both on their starting squares
+     */
+    private int homeRights() {
+        int rights = 0;
+
+        if (holds(4, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            if (holds(7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) { rights |= WHITE_KINGSIDE; }
+            if (holds(0, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) { rights |= WHITE_QUEENSIDE; }
+        }
+        if (holds(60, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            if (holds(63, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) { rights |= BLACK_KINGSIDE; }
+            if (holds(56, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) { rights |= BLACK_QUEENSIDE; }
+        }
+
+        return rights;
+    }
+
+    /**
+     * @return the castling rights a king or rook brings when it stands on the given square
+     */
+    private static int startingRights(int square, ChessPiece piece) {
+        int rights = ~CASTLING_KEPT[square] & PositionState.CASTLING_MASK;
+        ChessPiece.PieceType homeType = (square & 7) == 4 ? ChessPiece.PieceType.KING : ChessPiece.PieceType.ROOK;
+        ChessGame.TeamColor homeTeam = square < 8 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+
+        return piece.getPieceType() == homeType && piece.getTeamColor() == homeTeam ? rights : 0;
+    }
+
+    /**
+     * @return whether a square holds a given kind of piece
+     */
+    private boolean holds(int square, ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        return (pieceBitboards[Bitboard.pieceIndex(team, type)] & Bitboard.bit(square)) != 0;
+    }
+
+    /**
+     * Recomputes the turn, castling and en passant part of the Zobrist key. Only looks at a
+     * few squares, so it is cheap enough to call after every change.
+     */
+    private void updateStateKey() {
+        long key = Zobrist.castling(getCastlingRights());
+        if (getTeamTurn() == ChessGame.TeamColor.BLACK) { key ^= Zobrist.BLACK_TO_MOVE; }
+
+        // Only count en passant when an opposing pawn is beside the pawn to capture it
+        int enPassant = findCapturableEnPassantSquare();
+        if (enPassant != -1) { key ^= Zobrist.enPassant(Bitboard.column(enPassant)); }
+
+        stateKey = key;
+    }
+
+    /**
+     * @return the square of the en passantable pawn if a pawn of the team whose turn it is
+     * stands beside it, or -1 otherwise
+     */
+    private int findCapturableEnPassantSquare() {
+        int enPassant = findEnPassantSquare();
+        if (enPassant == -1) { return -1; }
+
+        long beside = ((Bitboard.bit(enPassant) << 1) & ~Bitboard.FILE_A) | ((Bitboard.bit(enPassant) >>> 1) & ~Bitboard.FILE_H);
+        return (beside & getPieces(getTeamTurn(), ChessPiece.PieceType.PAWN)) != 0 ? enPassant : -1;
     }
 
     /**
@@ -155,21 +426,221 @@ public class ChessBoard {
      * @param newBoard the board to be copied
      */
     public void setBoard(ChessBoard newBoard) {
-        squares = new ChessPiece[8][8];
+        // Pieces never change, so the boards can share them
+        squares = newBoard.squares.clone();
+        pieceBitboards = newBoard.pieceBitboards.clone();
+        teamOccupancy = newBoard.teamOccupancy.clone();
+        occupied = newBoard.occupied;
+        pieceKey = newBoard.pieceKey;
+        stateKey = newBoard.stateKey;
+        middlegameScore = newBoard.middlegameScore;
+        endgameScore = newBoard.endgameScore;
+        gamePhase = newBoard.gamePhase;
+        state = newBoard.state;
+        fullmoveNumber = newBoard.fullmoveNumber;
+        keyHistory = newBoard.keyHistory.clone();
+        historySize = newBoard.historySize;
+        undoStack = new ArrayList<>();
+    }
 
-        // Copy all of the piece from a new board
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                ChessPosition pos = new ChessPosition(i + 1, j + 1);
+    /**
+     * Moves a piece in place, including the rook when castling, the captured pawn for
+     * en passant and the new piece for a promotion. Does not check whether the move is
+     * legal. The move can be taken back with {@link #unmakeMove()}.
+     *
+     * @param move the move to make
+     */
+    public void makeMove(ChessMove move) {
+        int from = Bitboard.squareIndex(move.getStartPosition());
+        int to = Bitboard.squareIndex(move.getEndPosition());
+        ChessPiece movingPiece = squares[from];
+        MoveUndo undo = new MoveUndo(move, movingPiece, state);
+
+        // Remember the position being left, so repeats of it can be found later
+        if (historySize == keyHistory.length) { keyHistory = Arrays.copyOf(keyHistory, historySize * 2); }
+        keyHistory[historySize++] = getZobristKey();
+
+        // An en passant capture takes the pawn beside the start square, not on the end square
+        boolean pawn = movingPiece.getPieceType() == ChessPiece.PieceType.PAWN;
+        boolean enPassant = pawn && (from & 7) != (to & 7) && squares[to] == null;
+        undo.capturedSquare = enPassant ? (from & ~7) | (to & 7) : to;
+        undo.captured = squares[undo.capturedSquare];
+        clearSquare(undo.capturedSquare);
+
+        // If it is castling, move the rook too
+        if (movingPiece.getPieceType() == ChessPiece.PieceType.KING && Math.abs((from & 7) - (to & 7)) > 1) {
+            boolean queenSide = to < from;
+
+            undo.rookFrom = queenSide ? from - 4 : from + 3;
+            undo.rookTo = queenSide ? to + 1 : to - 1;
+            undo.rook = squares[undo.rookFrom];
+
+            clearSquare(undo.rookFrom);
+            placePiece(undo.rookTo, undo.rook);
+        }
+
+        // Move the piece, swapping in the new piece if promoting
+        ChessPiece placedPiece = move.getPromotionPiece() == null ? movingPiece :
+                ChessPiece.of(movingPiece.getTeamColor(), move.getPromotionPiece());
+        clearSquare(from);
+        placePiece(to, placedPiece);
+
+        // Update the rest of the state: only a pawn that just moved 2 spaces can be captured
+        // en passant, and the halfmove clock starts over after a capture or pawn move
+        int newState = PositionState.withCastlingRights(state, getCastlingRights() & CASTLING_KEPT[from] & CASTLING_KEPT[to]);
+        newState = PositionState.withEnPassantColumn(newState, pawn && Math.abs(to - from) == 16 ? Bitboard.column(to) : 0);
+        newState = PositionState.withHalfmoveClock(newState, pawn || undo.captured != null ? 0 : getHalfmoveClock() + 1);
+        if (getTeamTurn() == ChessGame.TeamColor.BLACK) { ++fullmoveNumber; }
+        state = PositionState.withTeamTurn(newState, getTeamTurn() == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+
+        undoStack.add(undo);
+        updateStateKey();
+    }
+
+    /**
+     * Takes back the last move made with {@link #makeMove(ChessMove)}
+     *
+     * @return the move that was taken back, or null if there are no moves to take back
+     */
+    public ChessMove unmakeMove() {
+        if (undoStack.isEmpty()) { return null; }
 
-                if(newBoard.getPiece(pos) == null) { continue; }
+        MoveUndo undo = undoStack.remove(undoStack.size() - 1);
+        int from = Bitboard.squareIndex(undo.move.getStartPosition());
+        int to = Bitboard.squareIndex(undo.move.getEndPosition());
 
-                ChessPiece newPiece = new ChessPiece(newBoard.getPiece(pos).getTeamColor(), newBoard.getPiece(pos).getPieceType());
+        // Put the moving piece back the way it was
+        clearSquare(to);
+        placePiece(from, undo.movedPiece);
 
-                addPiece(pos, newPiece);
+        // Put the rook back if castling
+        if (undo.rook != null) {
+            clearSquare(undo.rookTo);
+            placePiece(undo.rookFrom, undo.rook);
+        }
+
+        // Return any captured piece to its square
+        if (undo.captured != null) { placePiece(undo.capturedSquare, undo.captured); }
+
+        state = undo.previousState;
+        --historySize;
+        if (getTeamTurn() == ChessGame.TeamColor.BLACK) { --fullmoveNumber; }
+        updateStateKey();
+        return undo.move;
+    }
+
+    /**
+     * @return the moves that can be taken back with {@link #unmakeMove()}, oldest first. These
+     * are every move made since the board was last set up.
+     */
+    public List<ChessMove> getMoveHistory() {
+        ArrayList<ChessMove> moves = new ArrayList<>(undoStack.size());
+
+        for (MoveUndo undo : undoStack) {
+            moves.add(undo.move);
+        }
+
+        return moves;
+    }
+
+    /**
+     * Counts how many times the current position has appeared, including now. Only positions
+     * since the last capture or pawn move are checked, since none before it can repeat.
+     *
+     * @return the number of times the position has appeared, at least 1
+     */
+    public int getRepetitionCount() {
+        long key = getZobristKey();
+        int count = 1;
+
+        // Positions with the same team to move are every other entry, starting 2 moves back
+        int oldest = Math.max(0, historySize - getHalfmoveClock());
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) { ++count; }
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether neither team has enough pieces left to ever checkmate: only kings
+     * remain, plus at most one knight or bishop, or any number of bishops that all stand
+     * on the same color of square. Reads the piece counts straight from the bitboards.
+     *
+     * @return whether the position is a dead draw
+     */
+    public boolean hasInsufficientMaterial() {
+        // Any pawn, rook or queen could still checkmate
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            if ((getPieces(team, ChessPiece.PieceType.PAWN) | getPieces(team, ChessPiece.PieceType.ROOK) |
+                    getPieces(team, ChessPiece.PieceType.QUEEN)) != 0) {
+                return false;
             }
         }
 
+        long knights = getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT) |
+                getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        long bishops = getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP) |
+                getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+
+        if (Long.bitCount(knights | bishops) <= 1) { return true; }
+
+        return knights == 0 && ((bishops & Bitboard.LIGHT_SQUARES) == 0 || (bishops & ~Bitboard.LIGHT_SQUARES) == 0);
+    }
+
+    /**
+     * Finds the pawn that may currently be captured en passant by the team whose turn it is
+     *
+     * @return the square index of the en passantable pawn, or -1 if there is none
+     */
+    int findEnPassantSquare() {
+        int column = PositionState.enPassantColumn(state);
+        if (column == 0) { return -1; }
+
+        // The pawn moved 2 spaces on the other team's last turn, so it is on row 4 or 5
+        ChessGame.TeamColor pawnTeam = getTeamTurn() == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int square = Bitboard.squareIndex(pawnTeam == ChessGame.TeamColor.WHITE ? 4 : 5, column);
+
+        return holds(square, pawnTeam, ChessPiece.PieceType.PAWN) ? square : -1;
+    }
+
+    /**
+     * Puts a piece on an empty square and marks it in the bitboards
+     */
+    private void placePiece(int square, ChessPiece piece) {
+        long bit = Bitboard.bit(square);
+        int pieceIndex = Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+
+        squares[square] = piece;
+        pieceBitboards[pieceIndex] |= bit;
+        pieceKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore += PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+        gamePhase += PieceSquareTables.phase(pieceIndex);
+        teamOccupancy[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+    }
+
+    /**
+     * Empties a square and clears it from the bitboards
+     */
+    private void clearSquare(int square) {
+        ChessPiece piece = squares[square];
+        if (piece == null) { return; }
+
+        long bit = Bitboard.bit(square);
+        int pieceIndex = Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+
+        squares[square] = null;
+        pieceBitboards[pieceIndex] &= ~bit;
+        pieceKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore -= PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+        gamePhase -= PieceSquareTables.phase(pieceIndex);
+        teamOccupancy[piece.getTeamColor().ordinal()] &= ~bit;
+        occupied &= ~bit;
     }
 
     /**
@@ -178,21 +649,21 @@ public class ChessBoard {
      */
     public void resetBoard() {
         // Add all White Pawns
-        for (int i = 0; i < squares[1].length; ++i) {
+        for (int i = 0; i < 8; ++i) {
             // Create a Pawn
-            ChessPiece newPawn = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            ChessPiece newPawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
 
             // Add the Pawn to the board
-            addPiece(new ChessPosition(2, i + 1), newPawn);
+            addPiece(ChessPosition.of(2, i + 1), newPawn);
         }
 
         // Add all Black Pawns
-        for (int i = 0; i < squares[1].length; ++i) {
+        for (int i = 0; i < 8; ++i) {
             // Create a Pawn
-            ChessPiece newPawn = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            ChessPiece newPawn = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
 
             // Add the Pawn to the board
-            addPiece(new ChessPosition(7, i + 1), newPawn);
+            addPiece(ChessPosition.of(7, i + 1), newPawn);
         }
 
         ChessPiece.PieceType[] backRank = {ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT,
@@ -201,14 +672,14 @@ public class ChessBoard {
 
         // Set up White's back rank
         for (int i = 0; i < backRank.length; ++i) {
-            ChessPiece newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, backRank[i]);
-            addPiece(new ChessPosition(1, i + 1), newPiece);
+            ChessPiece newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, backRank[i]);
+            addPiece(ChessPosition.of(1, i + 1), newPiece);
         }
 
         // Set up Black's back rank
         for (int i = 0; i < backRank.length; ++i) {
-            ChessPiece newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, backRank[i]);
-            addPiece(new ChessPosition(8, i + 1), newPiece);
+            ChessPiece newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, backRank[i]);
+            addPiece(ChessPosition.of(8, i + 1), newPiece);
         }
     }
 
@@ -219,27 +690,24 @@ public class ChessBoard {
      * @return the position of the found king (null if it is not found)
      */
     public ChessPosition findKing(ChessGame.TeamColor teamColor) {
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                ChessPiece piece = getPiece(new ChessPosition(i+1,j+1));
-                if (piece != null && piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return new ChessPosition(i + 1,j + 1);
-                }
-            }
-        }
-        return null;
+        long king = getPieces(teamColor, ChessPiece.PieceType.KING);
+
+        return king == 0 ? null : Bitboard.toPosition(Long.numberOfTrailingZeros(king));
     }
 
+    /**
+     * Finds every piece of a given team color on the board
+     *
+     * @param teamColor the color of the pieces to find
+     * @return the positions of all the team's pieces
+     */
     public ArrayList<ChessPosition> findAllPieces(ChessGame.TeamColor teamColor) {
-        ArrayList<ChessPosition> positions = new ArrayList<>();
+        long pieces = getTeamOccupancy(teamColor);
+        ArrayList<ChessPosition> positions = new ArrayList<>(Long.bitCount(pieces));
 
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                ChessPiece piece = getPiece(new ChessPosition(i+1,j+1));
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    positions.add(new ChessPosition(i + 1,j + 1));
-                }
-            }
+        // Visit each set bit, lowest square first
+        for (; pieces != 0; pieces &= pieces - 1) {
+            positions.add(Bitboard.toPosition(Long.numberOfTrailingZeros(pieces)));
         }
 
         return positions;
@@ -253,39 +721,75 @@ public class ChessBoard {
      * @return whether the position is attacked
      */
     public boolean positionIsAttacked(ChessPosition position, ChessGame.TeamColor attackingTeam) {
-        // Find all the pieces of the attacking team
-        ArrayList<ChessPosition> pieces = findAllPieces(attackingTeam);
-
-        // Loop through each piece's moves to determine if the position is attacked
-        for (int i = 0; i < pieces.size(); ++i){
-            ChessPosition currentPosition = pieces.get(i);
-            ChessPiece piece = getPiece(currentPosition);
-
-            // If the piece exists and is the attacking team, find its moves.
-            if (piece != null && piece.getTeamColor() == attackingTeam) {
-                ArrayList<ChessMove> pieceMoves = (ArrayList<ChessMove>) piece.pieceMoves(this, currentPosition);
-
-                // Loop through all of this piece's moves. If it's end position is my position, we are attacked
-                for (int k = 0; k < pieceMoves.size(); k++) {
-                    if (position.equals(pieceMoves.get(k).getEndPosition())) {
-                        return true;
-                    }
-                }
-            }
+        return squareIsAttacked(Bitboard.squareIndex(position), attackingTeam);
+    }
+
+    /**
+     * Checks whether a square is attacked by a team, whether or not the square is empty.
+     * Looks outward from the square instead of generating the attacking team's moves.
+     *
+     * @param square the square index (0 is a1, 63 is h8) we want to check for attacks
+     * @param attackingTeam the color of the attacking team
+     * @return whether the square is attacked
+     */
+    public boolean squareIsAttacked(int square, ChessGame.TeamColor attackingTeam) {
+        // A pawn attacks this square if a defending pawn standing here would attack it back
+        ChessGame.TeamColor defendingTeam = attackingTeam == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if ((AttackTables.PAWN[defendingTeam.ordinal()][square] & getPieces(attackingTeam, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+
+        // The same goes for knights and kings
+        if ((AttackTables.KNIGHT[square] & getPieces(attackingTeam, ChessPiece.PieceType.KNIGHT)) != 0 ||
+                (AttackTables.KING[square] & getPieces(attackingTeam, ChessPiece.PieceType.KING)) != 0) {
+            return true;
         }
 
-        return false;
+        // A rook, bishop or queen attacks this square if one of the same kind standing here would attack it back
+        long queens = getPieces(attackingTeam, ChessPiece.PieceType.QUEEN);
+        long straightAttackers = getPieces(attackingTeam, ChessPiece.PieceType.ROOK) | queens;
+        long diagonalAttackers = getPieces(attackingTeam, ChessPiece.PieceType.BISHOP) | queens;
+
+        return (straightAttackers != 0 && (SlidingAttacks.rookAttacks(square, occupied) & straightAttackers) != 0) ||
+                (diagonalAttackers != 0 && (SlidingAttacks.bishopAttacks(square, occupied) & diagonalAttackers) != 0);
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square
+     *
+     * @param square the square index (0 is a1, 63 is h8) being attacked
+     * @param attackingTeam the color of the attacking team
+     * @param occupied the squares to treat as occupied when looking along lines, which lets
+     *                 callers look through pieces that are about to move
+     * @return a mask of the squares holding attacking pieces
+     */
+    public long attackersTo(int square, ChessGame.TeamColor attackingTeam, long occupied) {
+        ChessGame.TeamColor defendingTeam = attackingTeam == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = getPieces(attackingTeam, ChessPiece.PieceType.QUEEN);
+
+        return (AttackTables.PAWN[defendingTeam.ordinal()][square] & getPieces(attackingTeam, ChessPiece.PieceType.PAWN)) |
+                (AttackTables.KNIGHT[square] & getPieces(attackingTeam, ChessPiece.PieceType.KNIGHT)) |
+                (AttackTables.KING[square] & getPieces(attackingTeam, ChessPiece.PieceType.KING)) |
+                (SlidingAttacks.rookAttacks(square, occupied) & (getPieces(attackingTeam, ChessPiece.PieceType.ROOK) | queens)) |
+                (SlidingAttacks.bishopAttacks(square, occupied) & (getPieces(attackingTeam, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * @return the column (1-8) of the pawn that just moved two spaces, if a pawn of the team
+     * whose turn it is stands beside it to capture it en passant, or 0 otherwise
+     */
+    public int getEnPassantColumn() {
+        int enPassant = findCapturableEnPassantSquare();
+        return enPassant == -1 ? 0 : Bitboard.column(enPassant);
     }
 
     /**
      * Sets all pieces to not be en passantable
      */
     public void resetEnPassant() {
-        for (int i = 0; i < squares.length; ++i) {
-            for (int j = 0; j < squares[i].length; ++j) {
-                if (getPiece(new ChessPosition(i + 1, j + 1)) == null) { continue; }
-                getPiece(new ChessPosition(i + 1, j + 1)).setEnPassantable(false);
-            }
-        }
+        state = PositionState.withEnPassantColumn(state, 0);
+        updateStateKey();
     }
 }
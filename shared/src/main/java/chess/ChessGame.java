@@ -12,19 +12,50 @@ import java.util.Objects;
  */
 public class ChessGame {
 
+    // The board also keeps track of whose turn it is
     private ChessBoard board;
-    private TeamColor teamTurn;
+    private transient MoveValidation moveValidation = MoveValidation.LEGAL_MOVE_GENERATOR;
+
+    // Legal moves of recently seen positions, so asking for the same moves again is free
+    private transient MoveCache moveCache = new MoveCache(MoveCache.DEFAULT_CAPACITY);
 
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
+    }
+
+    /**
+     * Creates a game using a board that is already set up, including whose turn it is. The
+     * game plays its moves on that board rather than on a copy.
+     *
+     * @param board the board to play on
+     */
+    public ChessGame(ChessBoard board) {
+        this.board = board;
+    }
 
-        teamTurn = TeamColor.WHITE;
+    /**
+     * Sets up a game from a position in Forsyth-Edwards Notation, including whose turn it
+     * is, castling rights, the en passant square and the move counters
+     *
+     * @param fen the position, for example "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, teamTurn);
+        return Objects.hash(board, getTeamTurn());
     }
 
     @Override
@@ -33,14 +64,14 @@ public class ChessGame {
         if (obj == null || getClass() != obj.getClass()) { return false; }
         ChessGame that = (ChessGame) obj;
 
-        return board.equals(that.getBoard()) && teamTurn.equals(that.getTeamTurn());
+        return board.equals(that.getBoard()) && getTeamTurn() == that.getTeamTurn();
     }
 
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        return teamTurn;
+        return board.getTeamTurn();
     }
 
     /**
@@ -49,7 +80,17 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        teamTurn = team;
+        board.setTeamTurn(team);
+    }
+
+    /**
+     * Gets the Zobrist key of the game's position, which is the same whenever the pieces,
+     * castling rights, en passant capture and turn are the same
+     *
+     * @return the 64-bit Zobrist key
+     */
+    public long getZobristKey() {
+        return board.getZobristKey();
     }
 
     /**
@@ -60,6 +101,62 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The ways a game can be drawn other than stalemate
+     */
+    public enum DrawReason {
+        // The same position has appeared three times with the same team to move
+        THREEFOLD_REPETITION,
+        // Fifty moves by each team without a capture or pawn move
+        FIFTY_MOVE_RULE,
+        // Neither team has enough pieces left to checkmate
+        INSUFFICIENT_MATERIAL
+    }
+
+    /**
+     * The ways valid moves can be found
+     */
+    public enum MoveValidation {
+        // Make each basic move on the board and see if it leaves the king in check
+        TRIAL_MOVES,
+        // Generate only legal moves using the checking and pinned pieces
+        LEGAL_MOVE_GENERATOR
+    }
+
+    /**
+     * @return how this game finds valid moves
+     */
+    public MoveValidation getMoveValidation() {
+        return moveValidation;
+    }
+
+    /**
+     * Sets how this game finds valid moves
+     *
+     * @param moveValidation the way to find valid moves
+     */
+    public void setMoveValidation(MoveValidation moveValidation) {
+        this.moveValidation = moveValidation;
+    }
+
+    /**
+     * @return the cache valid moves are kept in, or null if they aren't cached
+     */
+    public MoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * Sets where valid moves are cached. Each game has its own cache to start with, but
+     * games can share one, for example on a server showing many games of the same opening.
+     * Only moves found by the legal move generator are cached.
+     *
+     * @param moveCache the cache to use, or null to find the moves again every time
+     */
+    public void setMoveCache(MoveCache moveCache) {
+        this.moveCache = moveCache;
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -76,53 +173,21 @@ public class ChessGame {
             // Find the team color
             ChessGame.TeamColor teamColor = board.getPiece(startPosition).getTeamColor();
 
+            if (moveValidation == MoveValidation.LEGAL_MOVE_GENERATOR) {
+                if (moveCache != null) { return moveCache.movesFrom(board, teamColor, startPosition); }
+                return new LegalMoveGenerator(board, teamColor).movesFrom(startPosition);
+            }
+
             // Find all the basic moves that this piece can make
             ArrayList<ChessMove> moves = (ArrayList<ChessMove>) board.getPiece(startPosition).pieceMoves(board, startPosition);
             ArrayList<ChessMove> validMoves = new ArrayList<>();
 
             // Loop through the basic moves
             for (int i = 0; i < moves.size(); ++i) {
-                // Create a new branch board
-                ChessGame branch = new ChessGame();
-                branch.setBoard(board);
-
-                // Find the new piece if promoting
-                ChessPiece newPiece = moves.get(i).getPromotionPiece() == null ?
-                        branch.getBoard().getPiece(moves.get(i).getStartPosition()) :
-                        new ChessPiece(teamColor, moves.get(i).getPromotionPiece());
-
-                // If it is castling, move the rook too
-                if (branch.isCastling(moves.get(i)) != null) {
-                    boolean queenSide = branch.isCastling(moves.get(i)) == ChessPiece.PieceType.QUEEN;
-
-                    // Make a new rook
-                    ChessPiece newRook = new ChessPiece(board.getPiece(startPosition).getTeamColor(), ChessPiece.PieceType.ROOK);
-                    newRook.flagAsMoved();
-
-                    int row = moves.get(i).getEndPosition().getRow();
-                    int col = moves.get(i).getEndPosition().getColumn();
-
-                    // Place the rook
-                    branch.getBoard().addPiece(new ChessPosition(row, col + (queenSide ? 1 : -1)), newRook);
-                    branch.getBoard().removePiece(new ChessPosition(row, (queenSide ? 1 : 8)));
-                }
-
-                // If the move was en passant, capture the other pawn
-                if (branch.isEnPassant(moves.get(i))) {
-                    int row = moves.get(i).getStartPosition().getRow();
-                    int col = moves.get(i).getEndPosition().getColumn();
-
-                    branch.getBoard().removePiece(new ChessPosition(row, col));
-                }
-
-                // Move the piece hypothetically
-                branch.getBoard().addPiece(moves.get(i).getEndPosition(), newPiece);
-
-                // Make the previous space empty
-                branch.getBoard().removePiece(moves.get(i).getStartPosition());
-
-                // See if we are hypothetically in check
-                boolean invalidMove = branch.isInCheck(teamColor);
+                // Make the move hypothetically and see if we are in check
+                board.makeMove(moves.get(i));
+                boolean invalidMove = isInCheck(teamColor);
+                board.unmakeMove();
 
                 if (!invalidMove) {
                     validMoves.add(moves.get(i));
@@ -132,6 +197,20 @@ public class ChessGame {
             return validMoves;
     }
 
+    /**
+     * Finds every legal move a team can make, stored as packed moves (see {@link PackedMove})
+     * in a buffer owned by the caller. The buffer is cleared first, so it can be reused
+     * between calls without allocating.
+     *
+     * @param teamColor the team to find moves for
+     * @param buffer the buffer to fill with moves
+     * @return the number of legal moves found
+     */
+    public int generateAllLegalMoves(TeamColor teamColor, MoveBuffer buffer) {
+        buffer.clear();
+        return new LegalMoveGenerator(board, teamColor).generate(buffer);
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -156,48 +235,23 @@ public class ChessGame {
         }
 
         // Check to make sure the moving piece matches the team color
-        if (board.getPiece(move.getStartPosition()).getTeamColor() != teamTurn) { isValid = false; }
+        if (board.getPiece(move.getStartPosition()).getTeamColor() != getTeamTurn()) { isValid = false; }
 
         // If the move is not valid throw an exception
         if (!isValid) { throw new InvalidMoveException("Invalid move attempted: " + move); }
 
-        // Get the piece to move
-        ChessPiece movingPiece = board.getPiece(move.getStartPosition());
-
-        // If promoting, change moving piece to promoted piece
-        if (move.getPromotionPiece() != null) { movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece()); }
-
-        // If it is castling, move the rook too
-        if (isCastling(move) != null) {
-            // Find the direction
-            boolean queenSide = isCastling(move) == ChessPiece.PieceType.QUEEN;
-
-            // Make a new rook
-            ChessPiece newRook = new ChessPiece(movingPiece.getTeamColor(), ChessPiece.PieceType.ROOK);
-            newRook.flagAsMoved();
-
-            // Place the rook
-            board.addPiece(new ChessPosition(move.getEndPosition().getRow(), move.getEndPosition().getColumn() + (queenSide ? 1 : -1)), newRook);
-            board.removePiece(new ChessPosition(move.getEndPosition().getRow(), (queenSide ? 1 : 8)));
-        }
-
-        // If the move was en passant, capture the other pawn
-        if (isEnPassant(move)) { board.removePiece(new ChessPosition(move.getStartPosition().getRow(), move.getEndPosition().getColumn())); }
-
-        // If the move is valid, make the move
-        movingPiece.flagAsMoved();
-        board.addPiece(move.getEndPosition(), movingPiece);
-        board.removePiece(move.getStartPosition());
-
-        // Set all en passant flags to false
-        board.resetEnPassant();
-
-        // If the pawn moved 2 spaces, flag it as en passantable. If not, un-flag it
-        movingPiece.setEnPassantable(movingPiece.getPieceType() == ChessPiece.PieceType.PAWN &&
-                Math.abs(move.getEndPosition().getRow() - move.getStartPosition().getRow()) > 1);
+        // If the move is valid, make the move, which also passes the turn to the other team
+        board.makeMove(move);
+    }
 
-        // Update team color
-        teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    /**
+     * Takes back the last move made in this game
+     *
+     * @return the move that was taken back, or null if there are no moves to take back
+     */
+    public ChessMove unmakeMove() {
+        // The board gives the turn back to the team that made the move
+        return board.unmakeMove();
     }
 
     /**
@@ -221,6 +275,11 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (moveValidation == MoveValidation.LEGAL_MOVE_GENERATOR) {
+            LegalMoveGenerator generator = new LegalMoveGenerator(board, teamColor);
+            return generator.isInCheck() && !generator.hasLegalMove();
+        }
+
         // Determine if we are in check
         boolean inCheck = isInCheck(teamColor);
 
@@ -245,6 +304,11 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (moveValidation == MoveValidation.LEGAL_MOVE_GENERATOR) {
+            LegalMoveGenerator generator = new LegalMoveGenerator(board, teamColor);
+            return !generator.isInCheck() && !generator.hasLegalMove();
+        }
+
         // Determine if we are in check
         boolean inCheck = isInCheck(teamColor);
 
@@ -261,6 +325,29 @@ public class ChessGame {
         return true;
     }
 
+    /**
+     * Finds whether the game is drawn by repetition, the fifty-move rule or insufficient
+     * material. Each check is kept up to date by the board as moves are made, so this
+     * doesn't scan the board. Checkmate should be checked first, since a move that
+     * checkmates wins even if it is the fiftieth move.
+     *
+     * @return why the game is drawn, or null if it isn't
+     */
+    public DrawReason getDrawReason() {
+        if (board.hasInsufficientMaterial()) { return DrawReason.INSUFFICIENT_MATERIAL; }
+        if (board.getHalfmoveClock() >= 100) { return DrawReason.FIFTY_MOVE_RULE; }
+        if (board.getRepetitionCount() >= 3) { return DrawReason.THREEFOLD_REPETITION; }
+
+        return null;
+    }
+
+    /**
+     * @return whether the game is drawn by repetition, the fifty-move rule or insufficient material
+     */
+    public boolean isDraw() {
+        return getDrawReason() != null;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -268,7 +355,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard newBoard) {
         board.setBoard(newBoard);
-        teamTurn = TeamColor.WHITE;
+        board.setTeamTurn(TeamColor.WHITE);
     }
 
     /**
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents moving a chess piece on a chessboard
  * <p>
@@ -10,6 +8,11 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    // Shared moves, filled in the first time each one is asked for. Indexed by start square,
+    // end square and promotion piece (0 for none, otherwise the piece type's ordinal + 1).
+    private static final int PROMOTION_SLOTS = ChessPiece.PieceType.values().length + 1;
+    private static final ChessMove[] INTERNED = new ChessMove[64 * 64 * PROMOTION_SLOTS];
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -20,6 +23,45 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets a move without creating a new object when both positions are on the board.
+     * Moves never change, so the same instance can be shared by every caller.
+     *
+     * @param startPosition where the piece starts
+     * @param endPosition where the piece ends
+     * @param promotionPiece the piece a pawn promotes to, or null if it doesn't promote
+     * @return the shared move if both positions are on the board, otherwise a new one
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
+        if (!startPosition.insideBoard() || !endPosition.insideBoard()) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+
+        return of(startPosition.index(), endPosition.index(), promotionPiece);
+    }
+
+    /**
+     * Gets the shared move between two square indexes
+     *
+     * @param from the square index the piece starts on
+     * @param to the square index the piece ends on
+     * @param promotionPiece the piece a pawn promotes to, or null if it doesn't promote
+     * @return the shared move
+     */
+    public static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        int slot = (from * 64 + to) * PROMOTION_SLOTS + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+
+        // Two threads may both create the same move at once, but they are equal and immutable,
+        // so it doesn't matter which one ends up stored
+        ChessMove move = INTERNED[slot];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+            INTERNED[slot] = move;
+        }
+
+        return move;
+    }
+
     /**
      * Generates a hashCode for the chess move
      *
@@ -27,7 +69,8 @@ public class ChessMove {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        int code = 31 * startPosition.hashCode() + endPosition.hashCode();
+        return 31 * code + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 
     /**
@@ -2,7 +2,6 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -12,26 +11,45 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // One shared instance for each color and type of piece, indexed by Bitboard.pieceIndex
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
-    private boolean moved;
-    private boolean enPassantable;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
-        moved = false;
-        enPassantable = false;
+    }
+
+    /**
+     * Gets the shared piece of a color and type. Pieces never change (whether they have
+     * moved is tracked by the board), so the same instance can be used on every board.
+     *
+     * @param pieceColor the team the piece belongs to
+     * @param type the type of the piece
+     * @return the shared piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[Bitboard.pieceIndex(pieceColor, type)];
     }
 
     /**
      * Generates a hashCode for the piece
      *
-     * @return A hashCode for the piece
+     * @return A hashCode for the piece, from 0 to 11
      */
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return Bitboard.pieceIndex(pieceColor, type);
     }
 
     /**
@@ -45,7 +63,7 @@ public class ChessPiece {
         if (this == obj) { return true; }
         if (obj == null || getClass() != obj.getClass()) { return false; }
         ChessPiece that = (ChessPiece) obj;
-        return pieceColor.equals(that.pieceColor) && type.equals(that.type);
+        return pieceColor == that.pieceColor && type == that.type;
     }
 
     /**
@@ -102,36 +120,6 @@ public class ChessPiece {
         return pieceStr;
     }
 
-    /**
-     * Mark the piece as having been moved from start
-     */
-    public void flagAsMoved() {
-        moved = true;
-    }
-
-    /**
-     * @return whether the piece has been moved since the beginning
-     */
-    public boolean ifMoved() {
-        return moved;
-    }
-
-    /**
-     * Sets the state of the enParrantable variable
-     *
-     * @param ep whether the piece is en passantable
-     */
-    public void setEnPassantable(boolean ep) {
-        enPassantable = ep;
-    }
-
-    /**
-     * @return whether this pawn may be valid for en passant
-     */
-    public boolean isEnPassantable() {
-        return enPassantable;
-    }
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
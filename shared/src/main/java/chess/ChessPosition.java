@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -10,6 +8,15 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    // One shared instance for each square on the board, indexed by square index
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; ++square) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -18,6 +25,30 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets a position without creating a new object when it is on the board. Positions
+     * never change, so the same instance can be shared by every board and move.
+     *
+     * @param row the row of the position, starting at 1
+     * @param col the column of the position, starting at 1
+     * @return the shared position if it is on the board, otherwise a new one
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) { return new ChessPosition(row, col); }
+
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * Gets the shared position for a square index
+     *
+     * @param square the square index, from 0 (a1) to 63 (h8)
+     * @return the shared position for that square
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * Generates a hashCode for the chess position
      *
@@ -25,7 +56,7 @@ public class ChessPosition {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     /**
@@ -70,6 +101,14 @@ public class ChessPosition {
         return col;
     }
 
+    /**
+     * @return the square index of this position, from 0 (a1) to 63 (h8), counting
+     * across each row from the bottom left. Only meaningful if the position is on the board.
+     */
+    public int index() {
+        return (row - 1) * 8 + (col - 1);
+    }
+
     /**
      * Determines whether the position is located on the board
      *
@@ -0,0 +1,217 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), for example the start
+ * position "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+ * <p>
+ * Both directions walk the text or the board once, character by character, without
+ * splitting the string or building any objects other than the result.
+ */
+final class Fen {
+
+    // The letter for each kind of piece, indexed by Bitboard.pieceIndex
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+
+    private Fen() {
+
+    }
+
+    /**
+     * Sets up a game from a FEN string. The halfmove clock and fullmove number may be left
+     * off, in which case they start at 0 and 1.
+     *
+     * @param fen the position to read
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    static ChessGame parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = 0;
+
+        // Piece placement, from row 8 down to row 1
+        int row = 8;
+        int col = 1;
+        for (; i < length && fen.charAt(i) != ' '; ++i) {
+            char c = fen.charAt(i);
+
+            if (c == '/') {
+                if (col != 9 || row == 1) { throw invalid(fen, "row " + row + " does not have 8 squares"); }
+                --row;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) { throw invalid(fen, "row " + row + " has more than 8 squares"); }
+            } else {
+                ChessPiece.PieceType type = pieceType(Character.toLowerCase(c));
+                if (type == null) { throw invalid(fen, "unknown piece '" + c + "'"); }
+                if (col > 8) { throw invalid(fen, "row " + row + " has more than 8 squares"); }
+
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, type));
+                ++col;
+            }
+        }
+        if (row != 1 || col != 9) { throw invalid(fen, "the board does not have 8 rows of 8 squares"); }
+
+        // Side to move
+        i = skipSpace(fen, i);
+        if (i >= length) { throw invalid(fen, "missing the side to move"); }
+        char side = fen.charAt(i++);
+        if (side != 'w' && side != 'b') { throw invalid(fen, "the side to move must be 'w' or 'b'"); }
+        board.setTeamTurn(side == 'w' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+
+        // Castling rights
+        i = skipSpace(fen, i);
+        int castlingRights = 0;
+        for (; i < length && fen.charAt(i) != ' '; ++i) {
+            switch (fen.charAt(i)) {
+                case 'K' -> castlingRights |= ChessBoard.WHITE_KINGSIDE;
+                case 'Q' -> castlingRights |= ChessBoard.WHITE_QUEENSIDE;
+                case 'k' -> castlingRights |= ChessBoard.BLACK_KINGSIDE;
+                case 'q' -> castlingRights |= ChessBoard.BLACK_QUEENSIDE;
+                case '-' -> { }
+                default -> throw invalid(fen, "unknown castling right '" + fen.charAt(i) + "'");
+            }
+        }
+        board.setCastlingRights(castlingRights);
+
+        // En passant target square, the square the pawn skipped over
+        i = skipSpace(fen, i);
+        if (i < length && fen.charAt(i) != '-') {
+            char file = fen.charAt(i);
+            char rank = i + 1 < length ? fen.charAt(i + 1) : ' ';
+            if (file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+                throw invalid(fen, "the en passant square must be on row 3 or 6");
+            }
+            board.setEnPassantColumn(file - 'a' + 1);
+            i += 2;
+        } else {
+            ++i;
+        }
+
+        // Halfmove clock and fullmove number, if present
+        i = skipSpace(fen, i);
+        if (i < length) {
+            int end = numberEnd(fen, i);
+            board.setHalfmoveClock(parseNumber(fen, i, end));
+            i = skipSpace(fen, end);
+        }
+        if (i < length) {
+            int end = numberEnd(fen, i);
+            board.setFullmoveNumber(Math.max(1, parseNumber(fen, i, end)));
+        }
+
+        return new ChessGame(board);
+    }
+
+    /**
+     * Writes a game's position as a FEN string
+     *
+     * @param game the game to write
+     * @return the FEN string
+     */
+    static String write(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+
+        // Piece placement, counting runs of empty squares
+        for (int row = 8; row >= 1; --row) {
+            int empty = 0;
+
+            for (int col = 1; col <= 8; ++col) {
+                ChessPiece piece = board.getPiece(Bitboard.squareIndex(row, col));
+
+                if (piece == null) {
+                    ++empty;
+                    continue;
+                }
+
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_LETTERS.charAt(Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType())));
+            }
+
+            if (empty > 0) { fen.append((char) ('0' + empty)); }
+            if (row > 1) { fen.append('/'); }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int castlingRights = board.getCastlingRights();
+        if (castlingRights == 0) { fen.append('-'); }
+        if ((castlingRights & ChessBoard.WHITE_KINGSIDE) != 0) { fen.append('K'); }
+        if ((castlingRights & ChessBoard.WHITE_QUEENSIDE) != 0) { fen.append('Q'); }
+        if ((castlingRights & ChessBoard.BLACK_KINGSIDE) != 0) { fen.append('k'); }
+        if ((castlingRights & ChessBoard.BLACK_QUEENSIDE) != 0) { fen.append('q'); }
+
+        // The target square is the one the pawn skipped over, behind it
+        int enPassant = board.findEnPassantSquare();
+        if (enPassant == -1) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + Bitboard.column(enPassant) - 1));
+            fen.append(Bitboard.row(enPassant) == 4 ? '3' : '6');
+        }
+
+        fen.append(' ').append(board.getHalfmoveClock());
+        fen.append(' ').append(board.getFullmoveNumber());
+
+        return fen.toString();
+    }
+
+    /**
+     * @return the type of piece for a lowercase FEN letter, or null if it isn't one
+     */
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the index of the first character at or after i that isn't a space
+     */
+    private static int skipSpace(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') { ++i; }
+        return i;
+    }
+
+    /**
+     * @return the index just past the number (or other field) starting at i
+     */
+    private static int numberEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') { ++i; }
+        return i;
+    }
+
+    /**
+     * Reads a non-negative number from part of the string without creating a substring
+     */
+    private static int parseNumber(String fen, int start, int end) {
+        int value = 0;
+
+        for (int i = start; i < end; ++i) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000) { throw invalid(fen, "move counters must be numbers"); }
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * @return an exception explaining why a FEN string couldn't be read
+     */
+    private static IllegalArgumentException invalid(String fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
@@ -0,0 +1,345 @@
+package chess;
+
+import java.util.ArrayList;
+
+/**
+ * Generates only legal moves for one team, without trying each move on the board.
+ * <p>
+ * The pieces giving check, the pieces pinned to the king and the squares that would
+ * block or capture a single checking piece are worked out once when the generator is
+ * created. Every piece's moves are then limited by those masks, so no move is generated
+ * that leaves the king in check.
+ */
+public final class LegalMoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor team;
+    private final ChessGame.TeamColor opposingTeam;
+    private final long ownPieces;
+    private final long opposingPieces;
+    private final long occupied;
+
+    // Square index of the team's king, or -1 if the team has no king on the board
+    private final int kingSquare;
+
+    // Pieces checking the king, pieces pinned to the king, and the squares a non-king move
+    // must land on to deal with the check (every square when not in check)
+    private final long checkers;
+    private final long pinned;
+    private final long evasionMask;
+
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor team) {
+        this.board = board;
+        this.team = team;
+        opposingTeam = team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ownPieces = board.getTeamOccupancy(team);
+        opposingPieces = board.getTeamOccupancy(opposingTeam);
+        occupied = board.getOccupancy();
+
+        long king = board.getPieces(team, ChessPiece.PieceType.KING);
+        kingSquare = king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+
+        if (kingSquare == -1) {
+            checkers = 0;
+            pinned = 0;
+            evasionMask = -1L;
+        } else {
+            checkers = board.attackersTo(kingSquare, opposingTeam, occupied);
+            pinned = findPinnedPieces();
+
+            // With one checker, block it or capture it. With two, only the king can move.
+            evasionMask = switch (Long.bitCount(checkers)) {
+                case 0 -> -1L;
+                case 1 -> checkers | AttackTables.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+                default -> 0;
+            };
+        }
+    }
+
+    /**
+     * @return whether the team's king is in check
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Adds every legal move the team can make to a buffer as packed moves
+     *
+     * @param buffer the buffer to add to
+     * @return the number of moves added
+     */
+    public int generate(MoveBuffer buffer) {
+        int count = 0;
+
+        for (long pieces = ownPieces; pieces != 0; pieces &= pieces - 1) {
+            count += addPieceMoves(Long.numberOfTrailingZeros(pieces), buffer);
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds the legal moves of one of the team's pieces to a buffer as packed moves
+     *
+     * @param square the square index of the piece
+     * @param buffer the buffer to add to
+     * @return the number of moves added (0 if the square holds no piece of the team)
+     */
+    public int generateFrom(int square, MoveBuffer buffer) {
+        if ((ownPieces & Bitboard.bit(square)) == 0) { return 0; }
+
+        return addPieceMoves(square, buffer);
+    }
+
+    /**
+     * Gets the legal moves for one of the team's pieces
+     *
+     * @param startPosition the position of the piece
+     * @return the legal moves for the piece (empty if the square holds no piece of the team)
+     */
+    public ArrayList<ChessMove> movesFrom(ChessPosition startPosition) {
+        MoveBuffer buffer = new MoveBuffer(32);
+        generateFrom(Bitboard.squareIndex(startPosition), buffer);
+
+        return toChessMoves(buffer);
+    }
+
+    /**
+     * @return every legal move the team can make
+     */
+    public ArrayList<ChessMove> allMoves() {
+        MoveBuffer buffer = new MoveBuffer();
+        generate(buffer);
+
+        return toChessMoves(buffer);
+    }
+
+    /**
+     * @return whether the team has at least one legal move
+     */
+    public boolean hasLegalMove() {
+        // Try the king first since it is the only piece that can move out of a double check.
+        // Moves are only counted, not stored.
+        if (kingSquare != -1 && addPieceMoves(kingSquare, null) != 0) { return true; }
+
+        long others = kingSquare == -1 ? ownPieces : ownPieces & ~Bitboard.bit(kingSquare);
+        for (long pieces = others; pieces != 0; pieces &= pieces - 1) {
+            if (addPieceMoves(Long.numberOfTrailingZeros(pieces), null) != 0) { return true; }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return new ChessMoves for every packed move in a buffer
+     */
+    private static ArrayList<ChessMove> toChessMoves(MoveBuffer buffer) {
+        ArrayList<ChessMove> moves = new ArrayList<>(buffer.size());
+
+        for (int i = 0; i < buffer.size(); ++i) {
+            moves.add(PackedMove.toChessMove(buffer.get(i)));
+        }
+
+        return moves;
+    }
+
+    /**
+     * Finds the team's pieces that are the only thing between their king and an opposing
+     * rook, bishop or queen
+     */
+    private long findPinnedPieces() {
+        long queens = board.getPieces(opposingTeam, ChessPiece.PieceType.QUEEN);
+
+        // Look from the king through the team's own pieces for opposing pieces on its lines
+        long snipers = (SlidingAttacks.rookAttacks(kingSquare, opposingPieces) &
+                (board.getPieces(opposingTeam, ChessPiece.PieceType.ROOK) | queens)) |
+                (SlidingAttacks.bishopAttacks(kingSquare, opposingPieces) &
+                (board.getPieces(opposingTeam, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinnedPieces = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = AttackTables.BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupied;
+
+            // Pinned if exactly one piece is in the way and it is one of ours
+            if (Long.bitCount(blockers) == 1 && (blockers & ownPieces) != 0) { pinnedPieces |= blockers; }
+        }
+
+        return pinnedPieces;
+    }
+
+    /**
+     * Adds the legal moves of the piece on a square
+     *
+     * @param buffer the buffer to add to, or null to only count the moves
+     * @return the number of moves
+     */
+    private int addPieceMoves(int from, MoveBuffer buffer) {
+        ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+
+        if (from == kingSquare) { return addKingMoves(buffer); }
+
+        // In double check only the king can move
+        if (evasionMask == 0) { return 0; }
+
+        // Land somewhere that deals with any check, and stay on the line to the king if pinned
+        long allowed = evasionMask & ~ownPieces;
+        if ((pinned & Bitboard.bit(from)) != 0) { allowed &= AttackTables.LINE[kingSquare][from]; }
+
+        long targets = switch (type) {
+            case KNIGHT -> AttackTables.KNIGHT[from];
+            case BISHOP -> SlidingAttacks.bishopAttacks(from, occupied);
+            case ROOK -> SlidingAttacks.rookAttacks(from, occupied);
+            case QUEEN -> SlidingAttacks.queenAttacks(from, occupied);
+            case KING -> AttackTables.KING[from];
+            case PAWN -> pawnTargets(from);
+        };
+
+        if (type != ChessPiece.PieceType.PAWN) { return addTargets(from, targets & allowed, false, buffer); }
+
+        return addTargets(from, targets & allowed, true, buffer) + addEnPassant(from, buffer);
+    }
+
+    /**
+     * Finds the squares a pawn can move to by pushing forward or capturing, ignoring checks
+     */
+    private long pawnTargets(int from) {
+        int forward = team == ChessGame.TeamColor.WHITE ? 8 : -8;
+        long targets = AttackTables.PAWN[team.ordinal()][from] & opposingPieces;
+
+        // Move forward one space if unoccupied, and two from the starting row
+        int oneStep = from + forward;
+        if (oneStep >= 0 && oneStep < 64 && (occupied & Bitboard.bit(oneStep)) == 0) {
+            targets |= Bitboard.bit(oneStep);
+
+            int twoStep = oneStep + forward;
+            if (Bitboard.row(from) == (forward > 0 ? 2 : 7) && (occupied & Bitboard.bit(twoStep)) == 0) {
+                targets |= Bitboard.bit(twoStep);
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Adds a pawn's en passant capture if it is available and legal
+     *
+     * @return the number of moves added (0 or 1)
+     */
+    private int addEnPassant(int from, MoveBuffer buffer) {
+        int victim = board.findEnPassantSquare();
+        if (victim == -1 || (opposingPieces & Bitboard.bit(victim)) == 0) { return 0; }
+
+        // The pawns must be side by side on the row the opposing pawn just moved to
+        if (Bitboard.row(victim) != Bitboard.row(from) || Math.abs(Bitboard.column(victim) - Bitboard.column(from)) != 1) {
+            return 0;
+        }
+
+        int to = victim + (team == ChessGame.TeamColor.WHITE ? 8 : -8);
+
+        // The capture must block the check or remove the pawn giving it
+        if ((evasionMask & Bitboard.bit(to)) == 0 && (checkers & Bitboard.bit(victim)) == 0) { return 0; }
+
+        // Two pawns leave the row at once, which can uncover an attack on the king along it
+        if (kingSquare != -1) {
+            long after = (occupied ^ Bitboard.bit(from) ^ Bitboard.bit(victim)) | Bitboard.bit(to);
+            long queens = board.getPieces(opposingTeam, ChessPiece.PieceType.QUEEN);
+
+            if ((SlidingAttacks.rookAttacks(kingSquare, after) & (board.getPieces(opposingTeam, ChessPiece.PieceType.ROOK) | queens)) != 0 ||
+                    (SlidingAttacks.bishopAttacks(kingSquare, after) & (board.getPieces(opposingTeam, ChessPiece.PieceType.BISHOP) | queens)) != 0) {
+                return 0;
+            }
+        }
+
+        if (buffer != null) { buffer.add(PackedMove.encode(from, to, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT)); }
+        return 1;
+    }
+
+    /**
+     * Adds the king's moves to squares that aren't attacked, and castling if allowed
+     *
+     * @return the number of moves added
+     */
+    private int addKingMoves(MoveBuffer buffer) {
+        // Take the king off the board when checking squares, so it can't hide behind itself
+        long withoutKing = occupied ^ Bitboard.bit(kingSquare);
+        long targets = AttackTables.KING[kingSquare] & ~ownPieces;
+        long safe = 0;
+
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            int to = Long.numberOfTrailingZeros(remaining);
+            if (board.attackersTo(to, opposingTeam, withoutKing) == 0) { safe |= Bitboard.bit(to); }
+        }
+
+        int count = addTargets(kingSquare, safe, false, buffer);
+
+        if (checkers == 0) {
+            count += addCastling(buffer, true) + addCastling(buffer, false);
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds castling to one side if the board still has the right to castle there, the squares
+     * between the king and rook are empty and the king doesn't pass through or land on an attacked square
+     *
+     * @return the number of moves added (0 or 1)
+     */
+    private int addCastling(MoveBuffer buffer, boolean queenSide) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int right = queenSide ? (white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE) :
+                (white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE);
+        int homeRow = white ? 1 : 8;
+        if (kingSquare != Bitboard.squareIndex(homeRow, 5) || (board.getCastlingRights() & right) == 0) { return 0; }
+
+        // Make sure the path is clear and the king will never be in check
+        int[] empty = queenSide ? new int[] {2, 3, 4} : new int[] {6, 7};
+        for (int col : empty) {
+            if ((occupied & Bitboard.bit(Bitboard.squareIndex(homeRow, col))) != 0) { return 0; }
+        }
+
+        int passed = Bitboard.squareIndex(homeRow, queenSide ? 4 : 6);
+        int landed = Bitboard.squareIndex(homeRow, queenSide ? 3 : 7);
+        if (board.attackersTo(passed, opposingTeam, occupied) != 0 || board.attackersTo(landed, opposingTeam, occupied) != 0) {
+            return 0;
+        }
+
+        if (buffer != null) { buffer.add(PackedMove.encode(kingSquare, landed, null, PackedMove.CASTLING)); }
+        return 1;
+    }
+
+    /**
+     * Adds a move from a square to each target, expanding pawn moves to the last row into promotions
+     *
+     * @return the number of moves added
+     */
+    private int addTargets(int from, long targets, boolean pawn, MoveBuffer buffer) {
+        int count = 0;
+
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (opposingPieces & Bitboard.bit(to)) != 0 ? PackedMove.CAPTURE : 0;
+
+            if (pawn && (Bitboard.row(to) == 1 || Bitboard.row(to) == 8)) {
+                count += PROMOTION_TYPES.length;
+                if (buffer == null) { continue; }
+
+                for (ChessPiece.PieceType promotion : PROMOTION_TYPES) {
+                    buffer.add(PackedMove.encode(from, to, promotion, flags));
+                }
+            } else {
+                if (pawn && Math.abs(to - from) == 16) { flags |= PackedMove.DOUBLE_PAWN_PUSH; }
+
+                ++count;
+                if (buffer != null) { buffer.add(PackedMove.encode(from, to, null, flags)); }
+            }
+        }
+
+        return count;
+    }
+}
@@ -1,45 +1,43 @@
 package chess;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
 
 public class LineMoveCalculator {
-    private final int[][] directions;
+    private final boolean straight;
+    private final boolean diagonal;
 
     public LineMoveCalculator(int[][] directions) {
-        this.directions = directions;
+        // Work out which kinds of lines the piece moves along
+        boolean straight = false;
+        boolean diagonal = false;
+        for (int i = 0; i < directions.length; ++i) {
+            if (directions[i][0] == 0 || directions[i][1] == 0) {
+                straight = true;
+            } else {
+                diagonal = true;
+            }
+        }
+        this.straight = straight;
+        this.diagonal = diagonal;
     }
 
     ArrayList<ChessMove> getPositions(ChessPosition myPosition, ChessBoard board) {
-        ArrayList<ChessMove> possibleMoves = new ArrayList<>();
+        int square = myPosition.index();
+        ChessGame.TeamColor myColor = board.getPiece(square).getTeamColor();
 
-        for (int i = 0; i < directions.length; ++i) {
-            ChessPosition newPosition = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-            boolean capturing = false;
-            do {
-                // Get Position NE one square
-                newPosition = new ChessPosition(newPosition.getRow() + directions[i][0], newPosition.getColumn() + directions[i][1]);
-
-                // If the space is outside the chess board, end the diagonal
-                if (!newPosition.insideBoard()) { break; }
-
-                // If the space is occupied by a piece of the same color, end the diagonal
-                if (board.getPiece(newPosition) != null) {
-                    if (board.getPiece(myPosition).getTeamColor() == board.getPiece(newPosition).getTeamColor()) {
-                        break;
-                    } else {
-                        capturing = true;
-                    }
-                }
-
-                // Add this new position to the possible moves
-                possibleMoves.add(new ChessMove(myPosition, newPosition, null));
-            } while ( !capturing );
+        // Look up every square reached along the lines, stopping at the first piece in each
+        long targets = 0;
+        if (straight) { targets |= SlidingAttacks.rookAttacks(square, board.getOccupancy()); }
+        if (diagonal) { targets |= SlidingAttacks.bishopAttacks(square, board.getOccupancy()); }
+
+        // A piece of the same color can't be captured
+        targets &= ~board.getTeamOccupancy(myColor);
+
+        ArrayList<ChessMove> possibleMoves = new ArrayList<>(Long.bitCount(targets));
+        for (; targets != 0; targets &= targets - 1) {
+            possibleMoves.add(ChessMove.of(square, Long.numberOfTrailingZeros(targets), null));
         }
 
         return possibleMoves;
     }
-
-
 }
@@ -0,0 +1,74 @@
+package chess;
+
+/**
+ * A reusable list of packed moves (see {@link PackedMove}) backed by an int array.
+ * <p>
+ * Callers keep a buffer and clear it before each use, so generating moves doesn't
+ * allocate once the buffer has grown large enough.
+ */
+public final class MoveBuffer {
+
+    // No legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveBuffer(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /**
+     * Adds a packed move to the end of the buffer, growing it if needed
+     *
+     * @param move the packed move
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            int[] bigger = new int[moves.length * 2];
+            System.arraycopy(moves, 0, bigger, 0, size);
+            moves = bigger;
+        }
+
+        moves[size++] = move;
+    }
+
+    /**
+     * @return the packed move at an index
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the packed move at an index
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * @return how many moves are in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the buffer holds no moves
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the buffer, keeping its array for reuse
+     */
+    public void clear() {
+        size = 0;
+    }
+}
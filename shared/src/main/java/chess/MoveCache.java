@@ -0,0 +1,186 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the legal moves of recently seen positions, so asking for the valid moves of
+ * several pieces, or of the same piece again, only generates the moves once
+ * <p>
+ * A client typically asks for a piece's moves to highlight them, again as the mouse moves,
+ * and then once more when {@link ChessGame#makeMove} checks the move. Every one of those
+ * after the first is answered from here. Entries are keyed by the position's Zobrist key,
+ * which covers the pieces, the turn, castling rights and en passant, together with the team
+ * the moves are for. A position that changes gets a different key, so nothing ever has to
+ * be cleared by hand. Each entry also keeps the pieces and state it was made from, and is
+ * only used when they match the board exactly, so two positions that happen to share a key
+ * are never given each other's moves.
+ * <p>
+ * The cache holds a fixed number of positions and forgets the least recently used one when
+ * it is full. It is safe to share one cache between games on different threads.
+ */
+public final class MoveCache {
+
+    /**
+     * How many positions a game's own cache holds
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Mixed into the key when the moves are for Black, so both teams' moves can be cached
+    private static final long BLACK_MOVES = 0x6A09E667F3BCC909L;
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> positions;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the most positions to remember
+     */
+    public MoveCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+
+        // Access order makes the eldest entry the least recently used one
+        positions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > MoveCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the legal moves of one piece, generating and remembering every legal move of its
+     * team if the position hasn't been seen recently
+     *
+     * @param board the position
+     * @param team the team the piece belongs to
+     * @param startPosition the position of the piece
+     * @return the legal moves of the piece
+     */
+    public ArrayList<ChessMove> movesFrom(ChessBoard board, ChessGame.TeamColor team, ChessPosition startPosition) {
+        ChessMove[] moves = teamMoves(board, team)[startPosition.index()];
+        return moves == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(moves));
+    }
+
+    /**
+     * Gets every legal move of a team, grouped by the square they start from
+     *
+     * @param board the position
+     * @param team the team to get moves for
+     * @return the moves from each square (0 is a1, 63 is h8), or null for a square with none.
+     * Shared with the cache, so it must not be changed.
+     */
+    public ChessMove[][] teamMoves(ChessBoard board, ChessGame.TeamColor team) {
+        return teamMoves(board, team, board.getZobristKey() ^ (team == ChessGame.TeamColor.BLACK ? BLACK_MOVES : 0));
+    }
+
+    /**
+     * Gets every legal move of a team, with the entry found by a given key
+     */
+    ChessMove[][] teamMoves(ChessBoard board, ChessGame.TeamColor team, long key) {
+        int state = board.getMoveState();
+
+        synchronized (this) {
+            Entry entry = positions.get(key);
+
+            // A different position with the same key is a miss, and its entry is replaced
+            if (entry != null && entry.team == team && entry.state == state && board.hasPieceBitboards(entry.pieces)) {
+                ++hits;
+                return entry.moves;
+            }
+            ++misses;
+        }
+
+        // Generate outside the lock so other threads aren't held up
+        MoveBuffer buffer = new MoveBuffer();
+        new LegalMoveGenerator(board, team).generate(buffer);
+
+        int[] counts = new int[64];
+        for (int i = 0; i < buffer.size(); ++i) {
+            ++counts[PackedMove.from(buffer.get(i))];
+        }
+
+        ChessMove[][] moves = new ChessMove[64][];
+        for (int i = 0; i < buffer.size(); ++i) {
+            int from = PackedMove.from(buffer.get(i));
+            if (moves[from] == null) { moves[from] = new ChessMove[counts[from]]; }
+            moves[from][moves[from].length - counts[from]--] = PackedMove.toChessMove(buffer.get(i));
+        }
+
+        Entry entry = new Entry(board.copyPieceBitboards(), state, team, moves);
+        synchronized (this) {
+            positions.put(key, entry);
+        }
+        return moves;
+    }
+
+    /**
+     * @return how many lookups were answered from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many lookups had to generate moves
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 if there were none
+     */
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * @return the number of positions remembered
+     */
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * @return the most positions the cache remembers
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Forgets every position and sets the hit and miss counts back to 0
+     */
+    public synchronized void clear() {
+        positions.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("MoveCache{%d/%d positions, %d hits, %d misses}", positions.size(), capacity, hits, misses);
+    }
+
+    /**
+     * The moves of one position, with what is needed to check the position really is the one asked about
+     */
+    private static final class Entry {
+
+        private final long[] pieces;
+        private final int state;
+        private final ChessGame.TeamColor team;
+        private final ChessMove[][] moves;
+
+        Entry(long[] pieces, int state, ChessGame.TeamColor team, ChessMove[][] moves) {
+            this.pieces = pieces;
+            this.state = state;
+            this.team = team;
+            this.moves = moves;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package chess;
+
+/**
+ * Everything needed to take back a move made with {@link ChessBoard#makeMove(ChessMove)}
+ */
+final class MoveUndo {
+
+    final ChessMove move;
+    final ChessPiece movedPiece;
+
+    // The castling rights, en passant column, turn and halfmove clock before the move
+    final int previousState;
+
+    // The piece captured by the move (null if nothing was captured) and where it stood.
+    // For en passant this is not the end square of the move.
+    ChessPiece captured;
+    int capturedSquare;
+
+    // Where the rook came from and went to when castling (-1 if not castling)
+    ChessPiece rook;
+    int rookFrom = -1;
+    int rookTo = -1;
+
+    MoveUndo(ChessMove move, ChessPiece movedPiece, int previousState) {
+        this.move = move;
+        this.movedPiece = movedPiece;
+        this.previousState = previousState;
+    }
+}
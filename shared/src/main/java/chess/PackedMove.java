@@ -0,0 +1,90 @@
+package chess;
+
+/**
+ * Encodes a move as a single int so moves can be stored in a primitive array
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (0 is a1, 63 is h8).
+ * Bits 12-14 hold the promotion piece as its {@link ChessPiece.PieceType} ordinal plus one,
+ * or 0 for no promotion. The bits above that are flags describing the move.
+ */
+public final class PackedMove {
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLING = 1 << 17;
+    public static final int DOUBLE_PAWN_PUSH = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+
+    }
+
+    /**
+     * Packs a move into an int
+     *
+     * @param from the start square index
+     * @param to the end square index
+     * @param promotion the piece to promote to, or null if not promoting
+     * @param flags any of the flag constants combined together
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | (to << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    /**
+     * @return the start square index of a packed move
+     */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * @return the end square index of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a packed move promotes to, or null if it isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 0x7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    /**
+     * @return whether a packed move has the given flag set
+     */
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * Drops the flags from a packed move, leaving only the squares and promotion piece
+     *
+     * @return the packed move without flags
+     */
+    public static int withoutFlags(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * @return the shared ChessMove for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    /**
+     * Packs a ChessMove without any flags
+     *
+     * @return the packed move
+     */
+    public static int fromChessMove(ChessMove move) {
+        return encode(Bitboard.squareIndex(move.getStartPosition()), Bitboard.squareIndex(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+}
@@ -0,0 +1,78 @@
+package chess;
+
+/**
+ * Packs everything about a position other than where the pieces stand into one int
+ * <p>
+ * Bits 0-3 hold the castling rights (see {@link ChessBoard#WHITE_KINGSIDE} and friends),
+ * bits 4-7 the column (1-8) of a pawn that just moved two spaces, or 0 if there is none,
+ * bit 8 is set when it is black's turn, and the bits above that count the halfmoves since
+ * the last capture or pawn move. Saving and restoring the whole state is a single int copy.
+ */
+final class PositionState {
+
+    static final int CASTLING_MASK = 0xF;
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_MASK = 0xF << EN_PASSANT_SHIFT;
+    private static final int BLACK_TO_MOVE = 1 << 8;
+    private static final int HALFMOVE_SHIFT = 9;
+
+    private PositionState() {
+
+    }
+
+    /**
+     * @return the castling rights mask of a state
+     */
+    static int castlingRights(int state) {
+        return state & CASTLING_MASK;
+    }
+
+    /**
+     * @return a copy of the state with new castling rights
+     */
+    static int withCastlingRights(int state, int rights) {
+        return (state & ~CASTLING_MASK) | (rights & CASTLING_MASK);
+    }
+
+    /**
+     * @return the column (1-8) of the pawn that can be captured en passant, or 0 if there is none
+     */
+    static int enPassantColumn(int state) {
+        return (state & EN_PASSANT_MASK) >>> EN_PASSANT_SHIFT;
+    }
+
+    /**
+     * @return a copy of the state with a new en passant column (0 for none)
+     */
+    static int withEnPassantColumn(int state, int column) {
+        return (state & ~EN_PASSANT_MASK) | (column << EN_PASSANT_SHIFT);
+    }
+
+    /**
+     * @return whose turn it is in a state
+     */
+    static ChessGame.TeamColor teamTurn(int state) {
+        return (state & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * @return a copy of the state with a new team to move
+     */
+    static int withTeamTurn(int state, ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.BLACK ? state | BLACK_TO_MOVE : state & ~BLACK_TO_MOVE;
+    }
+
+    /**
+     * @return the number of halfmoves since the last capture or pawn move
+     */
+    static int halfmoveClock(int state) {
+        return state >>> HALFMOVE_SHIFT;
+    }
+
+    /**
+     * @return a copy of the state with a new halfmove clock
+     */
+    static int withHalfmoveClock(int state, int halfmoves) {
+        return (state & ((1 << HALFMOVE_SHIFT) - 1)) | (halfmoves << HALFMOVE_SHIFT);
+    }
+}
@@ -0,0 +1,208 @@
+package chess;
+
+/**
+ * Looks up the squares attacked by rooks, bishops and queens using magic bitboards.
+ * <p>
+ * For each square, only the pieces on the lines leaving that square (ignoring the board
+ * edge, which can never block anything beyond it) affect the attacks. Multiplying those
+ * pieces by a "magic" number and keeping the top bits gives a unique index into a table
+ * of precomputed attack masks, so a lookup costs one multiply, one shift and one load.
+ * The magic numbers below were found ahead of time by a random search; the tables
+ * themselves are filled in when the class is loaded.
+ */
+public final class SlidingAttacks {
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+            0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = {
+            0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+            0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+            0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+            0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+            0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+            0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+            0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+            0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+            0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+            0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+            0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+            0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+            0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+            0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+            0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+            0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+    };
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    private static final long TABLE_BUILD_NANOS;
+
+    static {
+        long start = System.nanoTime();
+
+        for (int square = 0; square < 64; ++square) {
+            buildSquare(square, AttackTables.STRAIGHT_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS[square], ROOK_SHIFTS, ROOK_ATTACKS);
+            buildSquare(square, AttackTables.DIAGONAL_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS[square], BISHOP_SHIFTS, BISHOP_ATTACKS);
+        }
+
+        TABLE_BUILD_NANOS = System.nanoTime() - start;
+    }
+
+    private SlidingAttacks() {
+
+    }
+
+    /**
+     * Finds the squares a rook attacks, including the first piece met in each direction
+     *
+     * @param square the square index of the rook
+     * @param occupied a mask of every occupied square on the board
+     * @return a mask of the attacked squares
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[square][index];
+    }
+
+    /**
+     * Finds the squares a bishop attacks, including the first piece met in each direction
+     *
+     * @param square the square index of the bishop
+     * @param occupied a mask of every occupied square on the board
+     * @return a mask of the attacked squares
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[square][index];
+    }
+
+    /**
+     * Finds the squares a queen attacks, including the first piece met in each direction
+     *
+     * @param square the square index of the queen
+     * @param occupied a mask of every occupied square on the board
+     * @return a mask of the attacked squares
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return how long it took to build the lookup tables when the class was loaded, in nanoseconds
+     */
+    public static long getTableBuildNanos() {
+        return TABLE_BUILD_NANOS;
+    }
+
+    /**
+     * @return the total number of attack masks stored in the lookup tables
+     */
+    public static int getTableEntries() {
+        int entries = 0;
+
+        for (int square = 0; square < 64; ++square) {
+            entries += ROOK_ATTACKS[square].length + BISHOP_ATTACKS[square].length;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Fills in the attack table for one square, checking that the magic number never sends
+     * two arrangements of blockers with different attacks to the same entry
+     */
+    private static void buildSquare(int square, int[][] directions, long[] masks, long magic, int[] shifts, long[][] attacks) {
+        long mask = relevantOccupancy(square, directions);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        boolean[] filled = new boolean[table.length];
+
+        // Visit every arrangement of blockers on the mask, ending when it wraps back around to none
+        long subset = 0;
+        do {
+            int index = (int) ((subset * magic) >>> (64 - bits));
+            long expected = slowAttacks(square, subset, directions);
+
+            if (filled[index] && table[index] != expected) {
+                throw new IllegalStateException("Magic number for square " + square + " has a collision");
+            }
+            filled[index] = true;
+            table[index] = expected;
+
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        attacks[square] = table;
+    }
+
+    /**
+     * Finds the squares along each line from the square whose pieces can block it,
+     * leaving off the last square before the edge of the board
+     */
+    private static long relevantOccupancy(int square, int[][] directions) {
+        long mask = 0;
+
+        for (int i = 0; i < directions.length; ++i) {
+            int row = Bitboard.row(square) + directions[i][0];
+            int col = Bitboard.column(square) + directions[i][1];
+
+            // Only include the square if the next one along is still on the board
+            while (row + directions[i][0] >= 1 && row + directions[i][0] <= 8 &&
+                    col + directions[i][1] >= 1 && col + directions[i][1] <= 8) {
+                mask |= Bitboard.bit(Bitboard.squareIndex(row, col));
+                row += directions[i][0];
+                col += directions[i][1];
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Walks each line square by square to find the attacked squares, used to fill the tables
+     */
+    private static long slowAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+
+        for (int i = 0; i < directions.length; ++i) {
+            int row = Bitboard.row(square) + directions[i][0];
+            int col = Bitboard.column(square) + directions[i][1];
+
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                long bit = Bitboard.bit(Bitboard.squareIndex(row, col));
+                attacks |= bit;
+
+                // The first piece met blocks the rest of the line
+                if ((occupied & bit) != 0) { break; }
+
+                row += directions[i][0];
+                col += directions[i][1];
+            }
+        }
+
+        return attacks;
+    }
+}
@@ -0,0 +1,67 @@
+package chess;
+
+/**
+ * Random numbers used to build 64-bit Zobrist keys for positions
+ * <p>
+ * A position's key is the XOR of one number for each piece on its square, plus numbers
+ * for the castling rights, the en passant file and the side to move. Since XOR undoes
+ * itself, a key can be kept up to date by XORing in only what a move changes. The numbers
+ * come from a fixed seed so keys are the same on every run and every machine.
+ */
+final class Zobrist {
+
+    // Indexed by piece index (see Bitboard.pieceIndex) * 64 + square
+    private static final long[] PIECES = new long[12 * 64];
+
+    // Indexed by the 4-bit castling rights mask
+    private static final long[] CASTLING = new long[16];
+
+    // Indexed by column - 1 of the pawn that can be captured en passant
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long[] state = {0x9E3779B97F4A7C15L};
+
+        for (int i = 0; i < PIECES.length; ++i) { PIECES[i] = next(state); }
+        for (int i = 1; i < CASTLING.length; ++i) { CASTLING[i] = next(state); }
+        for (int i = 0; i < EN_PASSANT_FILE.length; ++i) { EN_PASSANT_FILE[i] = next(state); }
+        BLACK_TO_MOVE = next(state);
+    }
+
+    private Zobrist() {
+
+    }
+
+    /**
+     * @return the number for a piece standing on a square
+     */
+    static long piece(int pieceIndex, int square) {
+        return PIECES[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @return the number for a set of castling rights (0 for no rights)
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the number for a pawn that can be captured en passant on the given column (1-8)
+     */
+    static long enPassant(int column) {
+        return EN_PASSANT_FILE[column - 1];
+    }
+
+    /**
+     * @return the next number from a SplitMix64 generator
+     */
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,217 @@
+package chess.book;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Looks up moves for a position in an opening book file
+ * <p>
+ * The file uses the Polyglot book layout: 16-byte big-endian entries sorted by position
+ * key, each holding the key (8 bytes), a move (2 bytes), a weight (2 bytes) and a learning
+ * value (4 bytes, unused here). A position with several book moves has one entry for each.
+ * <p>
+ * Positions are found by their Polyglot key ({@link PolyglotKey}), so books made by
+ * {@link OpeningBookBuilder} and by any other Polyglot tool can be used alike.
+ * <p>
+ * The file is memory-mapped rather than read, so opening even a large book is instant and
+ * the operating system shares its pages between every process using it. A lookup is a
+ * binary search of the mapped entries that allocates nothing. The mapped buffer is only
+ * ever read at absolute offsets, never through its position, so any number of threads can
+ * look up moves in the same book at once.
+ */
+public final class OpeningBook {
+
+    /**
+     * Size of one entry in the file, in bytes
+     */
+    public static final int ENTRY_SIZE = 16;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Opens a book file by memory-mapping it
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file can't be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_SIZE != 0) { throw new IOException(path + " is not a book: its size is not a multiple of " + ENTRY_SIZE); }
+            if (length > Integer.MAX_VALUE) { throw new IOException(path + " is too large to map"); }
+
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the first entry for a position
+     *
+     * @param key the Polyglot key of the position (see {@link PolyglotKey})
+     * @return the index of the first entry with that key, or -1 if the position isn't in the
+     * book. The position's other entries follow it.
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = size;
+
+        // Find the first entry whose key is not below the one wanted
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low < size && getKey(low) == key ? low : -1;
+    }
+
+    /**
+     * @return the position key of an entry
+     */
+    public long getKey(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    /**
+     * @return the move of an entry in Polyglot's encoding (see {@link #encodeMove})
+     */
+    public int getMove(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    /**
+     * @return the weight of an entry: how good the move is compared to the position's other
+     * book moves
+     */
+    public int getWeight(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    /**
+     * Finds the book move with the highest weight for the game's current position
+     *
+     * @param game the game to find a move for
+     * @return the move, or null if the position isn't in the book
+     */
+    public ChessMove bestMove(ChessGame game) {
+        int first = find(PolyglotKey.of(game));
+        if (first == -1) { return null; }
+
+        long key = getKey(first);
+        int best = first;
+        for (int i = first + 1; i < size && getKey(i) == key; ++i) {
+            if (getWeight(i) > getWeight(best)) { best = i; }
+        }
+
+        return decodeMove(game.getBoard(), getMove(best));
+    }
+
+    /**
+     * Picks a book move for the game's current position at random, each move being picked
+     * in proportion to its weight, so the engine doesn't always play the same opening
+     *
+     * @param game the game to find a move for
+     * @param random a number from 0 (inclusive) to 1 (exclusive) that decides the pick
+     * @return the move, or null if the position isn't in the book
+     */
+    public ChessMove pickMove(ChessGame game, double random) {
+        int first = find(PolyglotKey.of(game));
+        if (first == -1) { return null; }
+
+        long key = getKey(first);
+        int end = first;
+        long total = 0;
+        while (end < size && getKey(end) == key) { total += getWeight(end++); }
+
+        long pick = (long) (random * total);
+        for (int i = first; i < end; ++i) {
+            pick -= getWeight(i);
+            if (pick < 0) { return decodeMove(game.getBoard(), getMove(i)); }
+        }
+
+        // Every move has weight 0, so any will do
+        return decodeMove(game.getBoard(), getMove(first));
+    }
+
+    /**
+     * Encodes a move the way Polyglot books store it: bits 0-5 the end square and bits 6-11
+     * the start square (0 is a1, 63 is h8), and bits 12-14 the promotion piece (1 knight,
+     * 2 bishop, 3 rook, 4 queen). Castling is stored as the king capturing its own rook.
+     *
+     * @param board the position the move is made in
+     * @param move the move
+     * @return the encoded move
+     */
+    public static int encodeMove(ChessBoard board, ChessMove move) {
+        int from = move.getStartPosition().index();
+        int to = move.getEndPosition().index();
+
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            to = to > from ? from + 3 : from - 4;
+        }
+
+        int promotion = 0;
+        for (int i = 1; i < PROMOTIONS.length; ++i) {
+            if (PROMOTIONS[i] == move.getPromotionPiece()) { promotion = i; }
+        }
+
+        return to | (from << 6) | (promotion << 12);
+    }
+
+    /**
+     * Turns a move stored in a book back into a move. Entries are only matched by key, so
+     * the move is not checked to be legal; a game will reject it in the very unlikely case
+     * that two positions share a key.
+     *
+     * @param board the position the move is made in
+     * @param bookMove the move in Polyglot's encoding
+     * @return the move
+     */
+    public static ChessMove decodeMove(ChessBoard board, int bookMove) {
+        int to = bookMove & 0x3F;
+        int from = (bookMove >>> 6) & 0x3F;
+        ChessPiece.PieceType promotion = PROMOTIONS[Math.min((bookMove >>> 12) & 0x7, PROMOTIONS.length - 1)];
+
+        // The king "capturing" its own rook is castling, which ends on column 3 or 7
+        ChessPiece piece = board.getPiece(ChessPosition.of(from));
+        ChessPiece target = board.getPiece(ChessPosition.of(to));
+        if (piece != null && target != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
+                target.getPieceType() == ChessPiece.PieceType.ROOK && target.getTeamColor() == piece.getTeamColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+
+        return ChessMove.of(from, to, promotion);
+    }
+}
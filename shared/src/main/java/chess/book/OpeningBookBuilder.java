@@ -0,0 +1,199 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes an opening book file (see {@link OpeningBook}) from a collection of games
+ * <p>
+ * Every move played in the first plies of each game is counted, weighted by how the game
+ * went for the player who made it: 2 for a win, 1 for a draw and 0 for a loss. Moves that
+ * only ever lost are left out of the book.
+ */
+public class OpeningBookBuilder {
+
+    /**
+     * How many plies of each game are added to a book unless told otherwise
+     */
+    public static final int DEFAULT_MAX_PLY = 20;
+
+    private final int maxPly;
+
+    // Weight of each move from each position, by Polyglot position key and then Polyglot move
+    private final HashMap<Long, HashMap<Integer, Long>> weights = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    /**
+     * @param maxPly how many plies of each game to add to the book
+     */
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds every game in a PGN file
+     *
+     * @param pgn the PGN file
+     * @throws IOException if the file can't be read
+     */
+    public void addPgn(Path pgn) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(pgn, StandardCharsets.ISO_8859_1)) {
+            PgnReader games = new PgnReader(reader);
+
+            for (PgnGame game = games.next(); game != null; game = games.next()) {
+                addGame(game);
+            }
+        }
+    }
+
+    /**
+     * Adds the opening of a game read from PGN. Games that start from a set-up position are
+     * skipped, and a game stops being added at the first move that can't be read.
+     *
+     * @param game the game
+     */
+    public void addGame(PgnGame game) {
+        if (game.getTag("FEN") != null) { return; }
+
+        int whitePoints = whitePoints(game.getResult());
+        ChessGame replay = new ChessGame();
+        List<String> moves = game.getMoves();
+
+        for (int ply = 0; ply < moves.size() && ply < maxPly; ++ply) {
+            try {
+                addMove(replay, San.parse(replay, moves.get(ply)), whitePoints);
+            } catch (IllegalArgumentException | InvalidMoveException e) {
+                break;
+            }
+        }
+
+        ++games;
+    }
+
+    /**
+     * Adds the opening of a game from the start position
+     *
+     * @param moves the moves of the game
+     * @param result "1-0", "0-1", "1/2-1/2", or "*" if unknown, which counts as a draw
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public void addMoves(List<ChessMove> moves, String result) {
+        int whitePoints = whitePoints(result);
+        ChessGame game = new ChessGame();
+
+        for (int ply = 0; ply < moves.size() && ply < maxPly; ++ply) {
+            try {
+                addMove(game, moves.get(ply), whitePoints);
+            } catch (InvalidMoveException e) {
+                throw new IllegalArgumentException("Move " + (ply + 1) + " of the game is not legal: " + moves.get(ply), e);
+            }
+        }
+
+        ++games;
+    }
+
+    /**
+     * Plays a move and counts it towards the book for the position it was played in
+     *
+     * @param game the game being replayed, which the move is made in
+     * @param move the move
+     * @param whitePoints how the game went for White: 2 for a win, 1 for a draw, 0 for a loss
+     * @throws InvalidMoveException if the move is not legal, in which case it isn't counted
+     */
+    private void addMove(ChessGame game, ChessMove move, int whitePoints) throws InvalidMoveException {
+        long key = PolyglotKey.of(game);
+        int bookMove = OpeningBook.encodeMove(game.getBoard(), move);
+        int points = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? whitePoints : 2 - whitePoints;
+
+        game.makeMove(move);
+        weights.computeIfAbsent(key, k -> new HashMap<>()).merge(bookMove, (long) points, Long::sum);
+    }
+
+    private static int whitePoints(String result) {
+        return result.equals("1-0") ? 2 : result.equals("0-1") ? 0 : 1;
+    }
+
+    /**
+     * @return the number of games added so far
+     */
+    public int getGameCount() {
+        return games;
+    }
+
+    /**
+     * Writes the book, sorted by position key so it can be searched
+     *
+     * @param path the file to write
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path path) throws IOException {
+        ArrayList<Long> keys = new ArrayList<>(weights.keySet());
+        keys.sort(Long::compareUnsigned);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (long key : keys) {
+                Map<Integer, Long> moves = weights.get(key);
+
+                // Weights are stored in 16 bits, so scale down positions seen in very many games
+                long most = 0;
+                for (long weight : moves.values()) { most = Math.max(most, weight); }
+                double scale = most > 0xFFFF ? (double) 0xFFFF / most : 1;
+
+                // Heaviest move first, as Polyglot books are written
+                ArrayList<Map.Entry<Integer, Long>> sorted = new ArrayList<>(moves.entrySet());
+                sorted.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+                for (Map.Entry<Integer, Long> move : sorted) {
+                    int weight = (int) Math.max(1, move.getValue() * scale);
+                    if (move.getValue() == 0) { continue; }
+
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(weight);
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes a book from PGN files
+     *
+     * @param args the book file to write, followed by the PGN files to read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: OpeningBookBuilder <book.bin> <games.pgn>...");
+            return;
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        for (int i = 1; i < args.length; ++i) {
+            builder.addPgn(Path.of(args[i]));
+        }
+
+        builder.write(Path.of(args[0]));
+        System.out.println("Wrote " + OpeningBook.open(Path.of(args[0])).size() + " entries from " +
+                builder.getGameCount() + " games to " + args[0]);
+    }
+}
@@ -0,0 +1,150 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Knows, for every position of one endgame, whether the stronger side wins
+ * <p>
+ * A lone king can never win, so every position is either a win for the side with the
+ * extra piece or a draw, and one bit per position is enough. Positions are indexed as if
+ * White were the stronger side (a position where Black is stronger is looked up with the
+ * board turned around), by side to move, then the square of the stronger king, the
+ * square of the weaker king and the square of the extra piece:
+ * {@code ((weakerToMove * 64 + strongKing) * 64 + weakKing) * 64 + piece}. That is
+ * 2 * 64 * 64 * 64 bits, or 64 kilobytes per endgame.
+ * <p>
+ * A bitbase is read straight from its bytes, which may be a memory-mapped file, so a probe
+ * is a few shifts and one byte read and allocates nothing. Any number of threads can probe
+ * the same bitbase at once.
+ */
+public final class Bitbase {
+
+    /**
+     * The result of a position for the side to move
+     */
+    public enum Result {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * Number of positions in each bitbase
+     */
+    public static final int POSITIONS = 2 * 64 * 64 * 64;
+
+    /**
+     * Size of each bitbase in bytes
+     */
+    public static final int BYTES = POSITIONS / 8;
+
+    private final Endgame endgame;
+    private final ByteBuffer bits;
+
+    /**
+     * @param endgame the endgame the bits are for
+     * @param bits one bit per position, set where the stronger side wins, with position i
+     *             in bit i % 8 of byte i / 8
+     */
+    public Bitbase(Endgame endgame, ByteBuffer bits) {
+        if (bits.capacity() != BYTES) {
+            throw new IllegalArgumentException("A bitbase has " + BYTES + " bytes, not " + bits.capacity());
+        }
+
+        this.endgame = endgame;
+        this.bits = bits;
+    }
+
+    /**
+     * Opens a bitbase file by memory-mapping it
+     *
+     * @param endgame the endgame the file is for
+     * @param path the file
+     * @return the bitbase
+     * @throws IOException if the file can't be read or is the wrong size
+     */
+    public static Bitbase open(Endgame endgame, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != BYTES) { throw new IOException(path + " is not a bitbase: it is not " + BYTES + " bytes"); }
+
+            // The mapping stays valid after the channel is closed
+            return new Bitbase(endgame, channel.map(FileChannel.MapMode.READ_ONLY, 0, BYTES));
+        }
+    }
+
+    /**
+     * @return the endgame this bitbase is for
+     */
+    public Endgame getEndgame() {
+        return endgame;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param board the position, which must be this bitbase's endgame with either side stronger
+     * @return the result for the side to move, or null if the position is not this endgame
+     */
+    public Result probe(ChessBoard board) {
+        if (Long.bitCount(board.getOccupancy()) != 3) { return null; }
+
+        // The stronger side is the one with two pieces
+        ChessGame.TeamColor strong = Long.bitCount(board.getTeamOccupancy(ChessGame.TeamColor.WHITE)) == 2 ?
+                ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        long piece = board.getPieces(strong, endgame.getPiece());
+        if (piece == 0) { return null; }
+
+        // Turn the board around when Black is stronger, so the stronger side is always White
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        int index = index(board.getTeamTurn() != strong,
+                Long.numberOfTrailingZeros(board.getPieces(strong, ChessPiece.PieceType.KING)) ^ flip,
+                Long.numberOfTrailingZeros(board.getPieces(weak, ChessPiece.PieceType.KING)) ^ flip,
+                Long.numberOfTrailingZeros(piece) ^ flip);
+
+        if (!isWin(index)) { return Result.DRAW; }
+        return board.getTeamTurn() == strong ? Result.WIN : Result.LOSS;
+    }
+
+    /**
+     * @return whether the stronger side wins the position at an index
+     */
+    public boolean isWin(int index) {
+        return (bits.get(index >>> 3) & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * @return the number of positions the stronger side wins
+     */
+    public int countWins() {
+        int wins = 0;
+
+        for (int i = 0; i < BYTES; ++i) {
+            wins += Integer.bitCount(bits.get(i) & 0xFF);
+        }
+
+        return wins;
+    }
+
+    /**
+     * Gets the index of a position, with White as the stronger side
+     *
+     * @param weakerToMove whether it is the weaker side's turn
+     * @param strongKing the square of the stronger side's king (0 is a1, 63 is h8)
+     * @param weakKing the square of the weaker side's king
+     * @param piece the square of the stronger side's other piece
+     * @return the index
+     */
+    public static int index(boolean weakerToMove, int strongKing, int weakKing, int piece) {
+        return (((weakerToMove ? 64 : 0) + strongKing) * 64 + weakKing) * 64 + piece;
+    }
+}
@@ -0,0 +1,263 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.LegalMoveGenerator;
+import chess.MoveBuffer;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Builds bitbases by retrograde analysis, using the board's own move rules
+ * <p>
+ * Every position of the endgame is first set up on a board and its legal moves found. A
+ * position is settled straight away when the weaker side is checkmated (a win), when the
+ * side to move is stalemated or the weaker king can take the extra piece (a draw), or when
+ * the pawn can promote into a won position of another endgame (a win). The moves that stay
+ * inside the endgame are remembered as links to the positions they lead to.
+ * <p>
+ * Then the analysis works backwards from the wins: a position where the stronger side is to
+ * move is won if any of its moves leads to a won position, and one where the weaker side is
+ * to move is won if all of its moves do. Passes over every position repeat until one finds
+ * nothing new; whatever isn't won by then is a draw. Both the setup and each pass are split
+ * over every core.
+ */
+public final class BitbaseGenerator {
+
+    // What is known about each position
+    private static final byte UNKNOWN = 0;
+    private static final byte WON = 1;
+    private static final byte DRAWN = 2;
+    private static final byte ILLEGAL = 3;
+
+    // Positions are set up in blocks that share the side to move and the stronger king's square
+    private static final int BLOCK = 64 * 64;
+
+    private BitbaseGenerator() {
+
+    }
+
+    /**
+     * Generates the bitbase for an endgame
+     *
+     * @param endgame the endgame
+     * @param promotions the bitbases to look up positions reached by promoting a pawn in.
+     *                   Only needed for KPK, which needs KQK and KRK.
+     * @return the bitbase, held in memory
+     * @throws IllegalArgumentException if a bitbase needed for promotions is missing
+     */
+    public static Bitbase generate(Endgame endgame, Bitbases promotions) {
+        if (endgame.getPiece() == ChessPiece.PieceType.PAWN && (promotions.get(Endgame.KQK) == null || promotions.get(Endgame.KRK) == null)) {
+            throw new IllegalArgumentException(endgame + " needs the KQK and KRK bitbases to look up promotions");
+        }
+
+        byte[] status = new byte[Bitbase.POSITIONS];
+        int[][] links = new int[Bitbase.POSITIONS / BLOCK][];
+        int[][] linkStarts = new int[Bitbase.POSITIONS / BLOCK][];
+
+        // Set up every position once, each block with its own board
+        IntStream.range(0, links.length).parallel().forEach(block -> {
+            int[] starts = new int[BLOCK + 1];
+            links[block] = setUpBlock(endgame, promotions, block, status, starts);
+            linkStarts[block] = starts;
+        });
+
+        // Work backwards from the settled positions until nothing changes
+        long settled;
+        do {
+            settled = IntStream.range(0, Bitbase.POSITIONS).parallel()
+                    .filter(index -> update(index, status, links, linkStarts))
+                    .count();
+        } while (settled > 0);
+
+        ByteBuffer bits = ByteBuffer.allocate(Bitbase.BYTES);
+        for (int index = 0; index < Bitbase.POSITIONS; ++index) {
+            if (status[index] == WON) { bits.put(index >>> 3, (byte) (bits.get(index >>> 3) | (1 << (index & 7)))); }
+        }
+
+        return new Bitbase(endgame, bits);
+    }
+
+    /**
+     * Sets up every position in a block, settling the ones that can be settled at once and
+     * finding the links of the rest
+     *
+     * @param starts filled with where each position's links start in the returned array, plus
+     *               the end of the last position's links
+     * @return the links of every position in the block, one after another
+     */
+    private static int[] setUpBlock(Endgame endgame, Bitbases promotions, int block, byte[] status, int[] starts) {
+        boolean weakerToMove = block >= 64;
+        int strongKing = block % 64;
+        ChessGame.TeamColor mover = weakerToMove ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ChessGame.TeamColor waiting = weakerToMove ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+
+        ChessBoard board = new ChessBoard();
+        MoveBuffer moves = new MoveBuffer();
+        MoveBuffer positionLinks = new MoveBuffer();
+        MoveBuffer found = new MoveBuffer(BLOCK * 4);
+
+        for (int weakKing = 0; weakKing < 64; ++weakKing) {
+            for (int piece = 0; piece < 64; ++piece) {
+                int index = Bitbase.index(weakerToMove, strongKing, weakKing, piece);
+                starts[index - block * BLOCK] = found.size();
+
+                if (strongKing == weakKing || piece == strongKing || piece == weakKing ||
+                        (endgame.getPiece() == ChessPiece.PieceType.PAWN && (piece < 8 || piece >= 56))) {
+                    status[index] = ILLEGAL;
+                    continue;
+                }
+
+                board.addPiece(ChessPosition.of(strongKing), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+                board.addPiece(ChessPosition.of(weakKing), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+                board.addPiece(ChessPosition.of(piece), ChessPiece.of(ChessGame.TeamColor.WHITE, endgame.getPiece()));
+                board.setTeamTurn(mover);
+                board.setCastlingRights(0);
+
+                status[index] = setUpPosition(board, promotions, mover, waiting, moves, positionLinks);
+                if (status[index] == UNKNOWN) {
+                    for (int i = 0; i < positionLinks.size(); ++i) {
+                        found.add(positionLinks.get(i));
+                    }
+                }
+
+                board.removePiece(ChessPosition.of(strongKing));
+                board.removePiece(ChessPosition.of(weakKing));
+                board.removePiece(ChessPosition.of(piece));
+            }
+        }
+        starts[BLOCK] = found.size();
+
+        int[] links = new int[found.size()];
+        for (int i = 0; i < links.length; ++i) {
+            links[i] = found.get(i);
+        }
+        return links;
+    }
+
+    /**
+     * Finds what can be known about a position from its own moves
+     *
+     * @param links filled with the indexes of the positions the moves lead to
+     * @return the position's status
+     */
+    private static byte setUpPosition(ChessBoard board, Bitbases promotions, ChessGame.TeamColor mover,
+                                      ChessGame.TeamColor waiting, MoveBuffer moves, MoveBuffer links) {
+        // The side that just moved can't have left its king in check
+        if (board.squareIsAttacked(Long.numberOfTrailingZeros(board.getPieces(waiting, ChessPiece.PieceType.KING)), mover)) {
+            return ILLEGAL;
+        }
+
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, mover);
+        moves.clear();
+        generator.generate(moves);
+
+        // White can never be checkmated here, since Black has only a king
+        if (moves.isEmpty()) { return generator.isInCheck() && mover == ChessGame.TeamColor.BLACK ? WON : DRAWN; }
+
+        links.clear();
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+
+            // Taking the extra piece leaves two bare kings
+            if (PackedMove.hasFlag(move, PackedMove.CAPTURE)) { return DRAWN; }
+
+            board.makeMove(PackedMove.toChessMove(move));
+
+            if (PackedMove.promotion(move) != null) {
+                // Promoting leaves this endgame, so the result comes from another bitbase
+                Bitbase.Result result = promotions.probe(board);
+                board.unmakeMove();
+
+                if (result == Bitbase.Result.LOSS) { return WON; }
+                continue;
+            }
+
+            links.add(Bitbase.index(mover == ChessGame.TeamColor.WHITE,
+                    Long.numberOfTrailingZeros(board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)),
+                    Long.numberOfTrailingZeros(board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)),
+                    Long.numberOfTrailingZeros(board.getTeamOccupancy(ChessGame.TeamColor.WHITE) &
+                            ~board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING))));
+            board.unmakeMove();
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Settles a position if the positions it links to now decide it
+     *
+     * @return whether the position was newly won
+     */
+    private static boolean update(int index, byte[] status, int[][] links, int[][] linkStarts) {
+        if (status[index] != UNKNOWN) { return false; }
+
+        int block = index / BLOCK;
+        int[] blockLinks = links[block];
+        int start = linkStarts[block][index % BLOCK];
+        int end = linkStarts[block][index % BLOCK + 1];
+        boolean weakerToMove = index >= Bitbase.POSITIONS / 2;
+
+        // The stronger side needs one winning move; the weaker side loses only if every move loses.
+        // Another thread may be settling the linked positions at the same time, but a position
+        // only ever goes from unknown to won, so at worst this one is settled on the next pass.
+        boolean won = weakerToMove;
+        for (int i = start; i < end; ++i) {
+            if ((status[blockLinks[i]] == WON) != weakerToMove) {
+                won = !weakerToMove;
+                break;
+            }
+        }
+
+        if (won) { status[index] = WON; }
+        return won;
+    }
+
+    /**
+     * Generates every bitbase and writes them to a directory, printing how long each took
+     * and how large its file is
+     *
+     * @param args the directory to write to (default "bitbases")
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "bitbases");
+        Files.createDirectories(directory);
+        Bitbases bitbases = new Bitbases();
+
+        System.out.printf("Generating with %d threads%n", Runtime.getRuntime().availableProcessors());
+
+        // KPK comes last since its promotions are looked up in the others
+        for (Endgame endgame : Endgame.values()) {
+            long start = System.nanoTime();
+            Bitbase bitbase = generate(endgame, bitbases);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            Path path = directory.resolve(endgame.getFileName());
+            write(bitbase, path);
+            bitbases.add(Bitbase.open(endgame, path));
+
+            System.out.printf("%s: %,d winning positions, built in %,d ms, %,d bytes%n",
+                    endgame, bitbase.countWins(), millis, Files.size(path));
+        }
+    }
+
+    /**
+     * Writes a bitbase to a file
+     */
+    public static void write(Bitbase bitbase, Path path) throws IOException {
+        byte[] bytes = new byte[Bitbase.BYTES];
+
+        for (int index = 0; index < Bitbase.POSITIONS; ++index) {
+            if (bitbase.isWin(index)) { bytes[index >>> 3] |= (byte) (1 << (index & 7)); }
+        }
+
+        Files.write(path, bytes);
+    }
+}
@@ -0,0 +1,74 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+
+/**
+ * A set of bitbases, one for each endgame that has been generated or loaded, looked up
+ * together
+ */
+public final class Bitbases {
+
+    private final EnumMap<Endgame, Bitbase> bitbases = new EnumMap<>(Endgame.class);
+
+    // Indexed by PieceType ordinal, for finding the bitbase of a position without a map lookup
+    private final Bitbase[] byPiece = new Bitbase[ChessPiece.PieceType.values().length];
+
+    /**
+     * Loads every bitbase file found in a directory (see {@link Endgame#getFileName()})
+     *
+     * @param directory the directory holding the files
+     * @return the bitbases found, possibly none
+     * @throws IOException if a file can't be read
+     */
+    public static Bitbases load(Path directory) throws IOException {
+        Bitbases bitbases = new Bitbases();
+
+        for (Endgame endgame : Endgame.values()) {
+            Path path = directory.resolve(endgame.getFileName());
+            if (Files.exists(path)) { bitbases.add(Bitbase.open(endgame, path)); }
+        }
+
+        return bitbases;
+    }
+
+    /**
+     * Adds a bitbase, replacing any for the same endgame
+     */
+    public void add(Bitbase bitbase) {
+        bitbases.put(bitbase.getEndgame(), bitbase);
+        byPiece[bitbase.getEndgame().getPiece().ordinal()] = bitbase;
+    }
+
+    /**
+     * @return the bitbase for an endgame, or null if there isn't one
+     */
+    public Bitbase get(Endgame endgame) {
+        return bitbases.get(endgame);
+    }
+
+    /**
+     * Looks up a position in whichever bitbase covers it
+     *
+     * @param board the position
+     * @return the result for the side to move, or null if no bitbase covers the position
+     */
+    public Bitbase.Result probe(ChessBoard board) {
+        if (Long.bitCount(board.getOccupancy()) != 3) { return null; }
+
+        // The only piece that isn't a king decides the endgame
+        long kings = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING) |
+                board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        ChessPiece piece = board.getPiece(Long.numberOfTrailingZeros(board.getOccupancy() & ~kings));
+        if (piece == null) { return null; }
+
+        Bitbase bitbase = byPiece[piece.getPieceType().ordinal()];
+        return bitbase == null ? null : bitbase.probe(board);
+    }
+}
@@ -0,0 +1,44 @@
+package chess.endgame;
+
+import chess.ChessPiece;
+
+/**
+ * The endgames there are bitbases for: a king and one other piece against a lone king
+ */
+public enum Endgame {
+    KQK(ChessPiece.PieceType.QUEEN),
+    KRK(ChessPiece.PieceType.ROOK),
+    KPK(ChessPiece.PieceType.PAWN);
+
+    private final ChessPiece.PieceType piece;
+
+    Endgame(ChessPiece.PieceType piece) {
+        this.piece = piece;
+    }
+
+    /**
+     * @return the piece the stronger side has besides its king
+     */
+    public ChessPiece.PieceType getPiece() {
+        return piece;
+    }
+
+    /**
+     * @return the endgame where the stronger side has a given piece besides its king, or
+     * null if there is no bitbase for it
+     */
+    public static Endgame withPiece(ChessPiece.PieceType piece) {
+        for (Endgame endgame : values()) {
+            if (endgame.piece == piece) { return endgame; }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the name of the file this endgame's bitbase is stored in
+     */
+    public String getFileName() {
+        return name() + ".bin";
+    }
+}
@@ -0,0 +1,248 @@
+package chess.perft;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts positions like {@link Perft}, but splits the work over a ForkJoinPool
+ * <p>
+ * The tree is split into one task per move at the root and again at the next ply, so
+ * there are enough tasks (usually hundreds) to keep every core busy even though some
+ * subtrees are far larger than others. Each task plays its move on its own copy of the
+ * game and counts the rest of its subtree alone with a plain Perft, so tasks share
+ * nothing while they run. Their counts are added together as the tasks are joined.
+ * <p>
+ * Because every task only needs a game to start from, the same pool can just as well count
+ * a large batch of unrelated positions at once; see {@link #validate}.
+ */
+public class ParallelPerft {
+
+    // How many plies at the top of the tree are split into separate tasks
+    private static final int SPLIT_PLIES = 2;
+
+    // Subtrees this shallow are too small to be worth a task of their own
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    private final ChessGame game;
+    private final ForkJoinPool pool;
+
+    public ParallelPerft(ChessGame game) {
+        this(game, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param game the game to count positions from, which is never changed
+     * @param pool the pool to run the tasks on
+     */
+    public ParallelPerft(ChessGame game, ForkJoinPool pool) {
+        this.game = game;
+        this.pool = pool;
+    }
+
+    /**
+     * Counts the positions reachable in exactly the given number of moves
+     *
+     * @param depth the number of moves to look ahead
+     * @return the number of positions (leaf nodes) found
+     */
+    public long count(int depth) {
+        return pool.invoke(new CountTask(copyOf(game), depth, 0));
+    }
+
+    /**
+     * Counts the positions reachable after each of the current team's moves separately
+     *
+     * @param depth the number of moves to look ahead, including the first move
+     * @return the count for each first move, in the order the moves were generated
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        ArrayList<ChessMove> moves = currentMoves(game);
+        ArrayList<CountTask> tasks = new ArrayList<>();
+
+        for (ChessMove move : moves) {
+            tasks.add(new CountTask(copyAfter(game, move), depth - 1, 1));
+        }
+        pool.invoke(new AllTask(tasks));
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); ++i) {
+            counts.put(moves.get(i), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    /**
+     * Counts a batch of positions at once and compares each count with its expected value
+     *
+     * @param checks the positions, depths and expected counts
+     * @param pool the pool to run the counts on
+     * @return the number of positions counted for each check, in the same order
+     */
+    public static long[] validate(List<Check> checks, ForkJoinPool pool) {
+        ArrayList<CountTask> tasks = new ArrayList<>();
+
+        for (Check check : checks) {
+            tasks.add(new CountTask(ChessGame.fromFen(check.getFen()), check.getDepth(), 0));
+        }
+        pool.invoke(new AllTask(tasks));
+
+        long[] counts = new long[checks.size()];
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = tasks.get(i).join();
+        }
+        return counts;
+    }
+
+    /**
+     * A position with the number of positions expected a given number of moves from it
+     */
+    public static class Check {
+
+        private final String fen;
+        private final int depth;
+        private final long expected;
+
+        public Check(String fen, int depth, long expected) {
+            this.fen = fen;
+            this.depth = depth;
+            this.expected = expected;
+        }
+
+        /**
+         * Reads the checks from one line of an EPD perft suite, which is a FEN followed by
+         * the count for each depth, for example
+         * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 ;D1 20 ;D2 400}
+         *
+         * @param line the line
+         * @param maxDepth the deepest count to check
+         * @return a check for each depth up to maxDepth
+         * @throws IllegalArgumentException if the line is not written this way
+         */
+        public static List<Check> parseEpd(String line, int maxDepth) {
+            String[] fields = line.split(";");
+            ArrayList<Check> checks = new ArrayList<>();
+
+            for (int i = 1; i < fields.length; ++i) {
+                String[] parts = fields[i].trim().split("\\s+");
+                if (parts.length != 2 || !parts[0].startsWith("D")) {
+                    throw new IllegalArgumentException("Invalid perft suite line \"" + line + "\": expected \"D<depth> <count>\"");
+                }
+
+                int depth = Integer.parseInt(parts[0].substring(1));
+                if (depth <= maxDepth) { checks.add(new Check(fields[0].trim(), depth, Long.parseLong(parts[1]))); }
+            }
+
+            return checks;
+        }
+
+        public String getFen() {
+            return fen;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getExpected() {
+            return expected;
+        }
+    }
+
+    /**
+     * Counts the positions below one position, splitting into a task per move near the top
+     */
+    private static class CountTask extends RecursiveTask<Long> {
+
+        private final ChessGame game;
+        private final int depth;
+        private final int ply;
+
+        CountTask(ChessGame game, int depth, int ply) {
+            this.game = game;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply >= SPLIT_PLIES || depth < MIN_SPLIT_DEPTH) { return new Perft(game).count(depth); }
+
+            ArrayList<CountTask> tasks = new ArrayList<>();
+            for (ChessMove move : currentMoves(game)) {
+                tasks.add(new CountTask(copyAfter(game, move), depth - 1, ply + 1));
+            }
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (CountTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs a list of tasks and waits for them all
+     */
+    private static class AllTask extends RecursiveAction {
+
+        private final List<CountTask> tasks;
+
+        AllTask(List<CountTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * @return a separate game at the same position, using the same way of validating moves
+     */
+    private static ChessGame copyOf(ChessGame game) {
+        // The board copy keeps the turn, so the game needs no setting up of its own
+        ChessBoard board = new ChessBoard();
+        board.setBoard(game.getBoard());
+
+        ChessGame copy = new ChessGame(board);
+        copy.setMoveValidation(game.getMoveValidation());
+        return copy;
+    }
+
+    /**
+     * @return a separate game at the position after a move
+     */
+    private static ChessGame copyAfter(ChessGame game, ChessMove move) {
+        ChessGame copy = copyOf(game);
+
+        try {
+            copy.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("validMoves returned a move makeMove rejected: " + move, e);
+        }
+
+        return copy;
+    }
+
+    /**
+     * @return every valid move for the team whose turn it is
+     */
+    private static ArrayList<ChessMove> currentMoves(ChessGame game) {
+        ArrayList<ChessMove> moves = new ArrayList<>();
+
+        for (ChessPosition position : game.getBoard().findAllPieces(game.getTeamTurn())) {
+            moves.addAll(game.validMoves(position));
+        }
+
+        return moves;
+    }
+}
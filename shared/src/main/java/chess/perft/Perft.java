@@ -0,0 +1,141 @@
+package chess.perft;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the positions reachable from a starting position in a fixed number of moves
+ * ("perft"), using only {@link ChessGame#validMoves} and {@link ChessGame#makeMove}.
+ * <p>
+ * The counts for the well known test positions below are published, so any difference
+ * points to a bug in move generation, usually in castling, en passant or promotion.
+ * The benchmarks module runs it from the command line with
+ * {@code java -cp benchmarks/target/benchmarks.jar chess.benchmarks.PerftDriver [position] [depth] [divide]}.
+ */
+public class Perft {
+
+    /**
+     * Well known positions with their published move counts, starting at depth 1
+     */
+    public enum TestPosition {
+        START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                20, 400, 8902, 197281, 4865609),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                48, 2039, 97862, 4085603),
+        POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                14, 191, 2812, 43238, 674624),
+        POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                6, 264, 9467, 422333),
+        POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44, 1486, 62379, 2103487),
+        POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                46, 2079, 89890, 3894594);
+
+        private final String fen;
+        private final long[] expected;
+
+        TestPosition(String fen, long... expected) {
+            this.fen = fen;
+            this.expected = expected;
+        }
+
+        /**
+         * @return a new game set up at this position
+         */
+        public ChessGame createGame() {
+            return ChessGame.fromFen(fen);
+        }
+
+        /**
+         * @return the position in Forsyth-Edwards Notation
+         */
+        public String getFen() {
+            return fen;
+        }
+
+        /**
+         * @return the published count for a depth, or -1 if it isn't known
+         */
+        public long expectedCount(int depth) {
+            return depth >= 1 && depth <= expected.length ? expected[depth - 1] : -1;
+        }
+
+        /**
+         * @return the deepest depth with a published count
+         */
+        public int maxKnownDepth() {
+            return expected.length;
+        }
+    }
+
+    private final ChessGame game;
+
+    public Perft(ChessGame game) {
+        this.game = game;
+    }
+
+    /**
+     * Counts the positions reachable in exactly the given number of moves
+     *
+     * @param depth the number of moves to look ahead
+     * @return the number of positions (leaf nodes) found
+     */
+    public long count(int depth) {
+        if (depth == 0) { return 1; }
+
+        long nodes = 0;
+        for (ChessMove move : currentMoves()) {
+            makeMove(move);
+            nodes += depth == 1 ? 1 : count(depth - 1);
+            game.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Counts the positions reachable after each of the current team's moves separately,
+     * which narrows a wrong total down to the move that caused it
+     *
+     * @param depth the number of moves to look ahead, including the first move
+     * @return the count for each first move, in the order the moves were generated
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+
+        for (ChessMove move : currentMoves()) {
+            makeMove(move);
+            counts.put(move, count(depth - 1));
+            game.unmakeMove();
+        }
+
+        return counts;
+    }
+
+    /**
+     * @return every valid move for the team whose turn it is
+     */
+    private ArrayList<ChessMove> currentMoves() {
+        ArrayList<ChessMove> moves = new ArrayList<>();
+
+        for (ChessPosition position : game.getBoard().findAllPieces(game.getTeamTurn())) {
+            moves.addAll(game.validMoves(position));
+        }
+
+        return moves;
+    }
+
+    /**
+     * Makes a move that was just returned by validMoves, which should never be rejected
+     */
+    private void makeMove(ChessMove move) {
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("validMoves returned a move makeMove rejected: " + move, e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes the bytes of a channel into characters a buffer at a time
+ * <p>
+ * {@link PgnReader} reads one character at a time, which the readers from
+ * {@link java.nio.channels.Channels} and {@link java.io.BufferedReader} answer by taking a
+ * lock on every call. This reader is only ever used by one thread, so a single character
+ * is just a read from the current buffer. Bytes that aren't valid in the charset are
+ * replaced rather than stopping the read, since old PGN files often mix encodings.
+ */
+final class ChannelReader extends Reader {
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+
+    private boolean endOfInput;
+    private boolean finished;
+
+    /**
+     * @param channel the channel to read
+     * @param charset the encoding of the text, which must not give more characters than bytes
+     * @param bufferSize how many bytes to read from the channel at once
+     */
+    ChannelReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocateDirect(bufferSize);
+
+        // Start with no characters ready to be read
+        chars = CharBuffer.allocate(bufferSize);
+        chars.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!chars.hasRemaining() && !fill()) { return -1; }
+        return chars.get();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) { return 0; }
+        if (!chars.hasRemaining() && !fill()) { return -1; }
+
+        int count = Math.min(length, chars.remaining());
+        chars.get(buffer, offset, count);
+        return count;
+    }
+
+    /**
+     * Decodes the next characters, reading more bytes as needed
+     *
+     * @return whether there are characters to read, which is false only at the end of the channel
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+
+        // A read can end partway through a character, so decoding may not give any yet
+        while (chars.position() == 0 && !finished) {
+            if (channel.read(bytes) == -1) { endOfInput = true; }
+
+            bytes.flip();
+            decoder.decode(bytes, chars, endOfInput);
+            bytes.compact();
+
+            if (endOfInput) {
+                decoder.flush(chars);
+                finished = true;
+            }
+        }
+
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,20 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where {@link PgnImporter} stores the games it has checked
+ */
+public interface GameSink {
+
+    /**
+     * Stores a batch of games, every one of which has been replayed and found legal. Only
+     * one thread at a time calls this, but batches don't arrive in the order the games were
+     * read.
+     *
+     * @param games the games
+     * @throws IOException if the games can't be stored, which stops the import
+     */
+    void write(List<PgnGame> games) throws IOException;
+}
@@ -0,0 +1,48 @@
+package chess.pgn;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stores games by writing them to a PGN file, so a large collection can be cleaned into a
+ * file of only legal games
+ */
+public class PgnFileSink implements GameSink, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final PgnWriter pgn;
+
+    /**
+     * @param path the file to write, which is replaced if it exists
+     * @throws IOException if the file can't be opened
+     */
+    public PgnFileSink(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        pgn = new PgnWriter(writer);
+    }
+
+    @Override
+    public void write(List<PgnGame> games) throws IOException {
+        for (PgnGame game : games) {
+            pgn.write(game);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
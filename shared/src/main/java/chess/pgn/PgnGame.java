@@ -0,0 +1,145 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveBuffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game of a PGN file: its tag pairs, its moves as SAN strings and its result
+ * <p>
+ * The moves are kept as text, since turning them into ChessMoves means replaying the game.
+ * {@link #replay()} does that, and {@link #fromGame} goes the other way, recording the
+ * moves made in a ChessGame.
+ */
+public class PgnGame {
+
+    /**
+     * The result of a game that is unfinished or whose result is unknown
+     */
+    public static final String UNKNOWN_RESULT = "*";
+
+    // The tags every PGN game has, in the order they are written
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    private static final String START_FEN = new ChessGame().toFen();
+
+    private final LinkedHashMap<String, String> tags;
+    private final ArrayList<String> moves;
+    private final String result;
+
+    public PgnGame(Map<String, String> tags, List<String> moves, String result) {
+        this.tags = new LinkedHashMap<>(tags);
+        this.moves = new ArrayList<>(moves);
+        this.result = result;
+    }
+
+    /**
+     * Records the moves made in a game, from the position the game started in
+     *
+     * @param game the game, which is left as it was
+     * @param tags tags to record the game with, such as "White" and "Event". Any of the
+     *             seven tags every PGN game has that are missing are filled in with "?".
+     *             A "Result" tag is only used if the position doesn't already decide the game.
+     * @return the game as PGN
+     */
+    public static PgnGame fromGame(ChessGame game, Map<String, String> tags) {
+        ChessBoard board = game.getBoard();
+        List<ChessMove> history = board.getMoveHistory();
+
+        // Take the moves back to find where the game started, then name each as it is played again
+        for (int i = 0; i < history.size(); ++i) {
+            board.unmakeMove();
+        }
+        String startFen = game.toFen();
+
+        ArrayList<String> moves = new ArrayList<>(history.size());
+        for (ChessMove move : history) {
+            moves.add(San.write(game, move));
+            board.makeMove(move);
+        }
+
+        String result = result(game, tags.getOrDefault("Result", UNKNOWN_RESULT));
+
+        LinkedHashMap<String, String> allTags = new LinkedHashMap<>();
+        for (String name : SEVEN_TAG_ROSTER) {
+            allTags.put(name, tags.getOrDefault(name, name.equals("Date") ? "????.??.??" : "?"));
+        }
+        allTags.putAll(tags);
+        allTags.put("Result", result);
+
+        if (!startFen.equals(START_FEN)) {
+            allTags.put("SetUp", "1");
+            allTags.put("FEN", startFen);
+        }
+
+        return new PgnGame(allTags, moves, result);
+    }
+
+    /**
+     * Plays the game's moves from its start position, which is the "FEN" tag if it has one
+     *
+     * @return a new game in the position after the last move
+     * @throws IllegalArgumentException if the start position or a move can't be read, or a
+     * move is not legal
+     */
+    public ChessGame replay() {
+        String fen = getTag("FEN");
+        ChessGame game = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        MoveBuffer legalMoves = new MoveBuffer();
+
+        // Each move is found among the legal moves, so it is played on the board without
+        // makeMove checking it a second time
+        for (String san : moves) {
+            game.generateAllLegalMoves(game.getTeamTurn(), legalMoves);
+            game.getBoard().makeMove(San.parse(game, san, legalMoves));
+        }
+
+        return game;
+    }
+
+    /**
+     * @return the result the position decides, or the given result if it decides none
+     */
+    private static String result(ChessGame game, String otherwise) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+
+        if (game.isInCheckmate(turn)) { return turn == ChessGame.TeamColor.WHITE ? "0-1" : "1-0"; }
+        if (game.isInStalemate(turn) || game.isDraw()) { return "1/2-1/2"; }
+        return otherwise;
+    }
+
+    /**
+     * @return the value of a tag, such as "White" or "Event", or null if the game doesn't have it
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return every tag of the game, in the order they were written
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * @return the moves of the game in SAN, starting with White's first move
+     */
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @return "1-0", "0-1", "1/2-1/2" or "*" (see UNKNOWN_RESULT)
+     */
+    public String getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,289 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads a large collection of PGN games, keeping only the ones whose moves are all legal
+ * <p>
+ * The file is read through a channel and parsed one game at a time, so only the games
+ * being worked on are ever in memory, whatever the size of the file. The games read are
+ * grouped into batches, and each batch is handed to a pool of worker threads, which replay
+ * every game with {@link PgnGame#replay()} and pass the legal ones to a {@link GameSink}
+ * together. When every worker is busy and the queue of waiting batches is full, the reading
+ * thread replays the next batch itself, which keeps it from reading far ahead of the workers.
+ */
+public class PgnImporter {
+
+    /**
+     * How many games are read before they are handed to a worker, and so how many are stored at once
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final GameSink sink;
+    private final int threads;
+    private final int batchSize;
+
+    // Held while writing to the sink, so only one worker writes at a time. Private, so the
+    // sink or its callers locking on it can't hold the workers up.
+    private final Object sinkLock = new Object();
+
+    public PgnImporter(GameSink sink) {
+        this(sink, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param sink where to store the games that are legal
+     * @param threads how many worker threads replay games
+     * @param batchSize how many games go to a worker, and then to the sink, at once
+     */
+    public PgnImporter(GameSink sink, int threads, int batchSize) {
+        this.sink = sink;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports every game in a PGN file
+     *
+     * @param path the file
+     * @return how the import went
+     * @throws IOException if the file can't be read or the sink fails
+     */
+    public Report importFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return importFrom(channel);
+        }
+    }
+
+    /**
+     * Imports every game read from a channel of UTF-8 PGN text
+     *
+     * @param channel the channel, which is read to its end but not closed
+     * @return how the import went
+     * @throws IOException if the channel can't be read or the sink fails
+     */
+    public Report importFrom(ReadableByteChannel channel) throws IOException {
+        resetPeakHeap();
+        long start = System.nanoTime();
+
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        long read = 0;
+
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2), task -> {
+                    Thread worker = new Thread(task, "pgn-import-" + workerCount.getAndIncrement());
+                    worker.setDaemon(true);
+                    return worker;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            PgnReader reader = new PgnReader(new ChannelReader(channel, StandardCharsets.UTF_8, BUFFER_SIZE));
+            ArrayList<PgnGame> batch = new ArrayList<>(batchSize);
+
+            while (failure.get() == null) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (IllegalArgumentException e) {
+                    // A broken tag spoils its own game, but the reader carries on after it
+                    ++read;
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                if (game == null) { break; }
+
+                ++read;
+                batch.add(game);
+                if (batch.size() == batchSize) {
+                    List<PgnGame> full = batch;
+                    workers.execute(() -> importBatch(full, imported, rejected, failure));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                List<PgnGame> last = batch;
+                workers.execute(() -> importBatch(last, imported, rejected, failure));
+            }
+        } finally {
+            workers.shutdown();
+            awaitTermination(workers);
+        }
+
+        if (failure.get() != null) { throw failure.get(); }
+        return new Report(read, imported.get(), rejected.get(), System.nanoTime() - start, peakHeap());
+    }
+
+    /**
+     * Replays a batch of games and stores the legal ones
+     */
+    private void importBatch(List<PgnGame> games, AtomicLong imported, AtomicLong rejected, AtomicReference<IOException> failure) {
+        ArrayList<PgnGame> legal = new ArrayList<>(games.size());
+
+        for (PgnGame game : games) {
+            try {
+                game.replay();
+                legal.add(game);
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        }
+
+        // Once the sink has failed, nothing more is stored
+        synchronized (sinkLock) {
+            if (failure.get() != null) { return; }
+
+            try {
+                sink.write(legal);
+                imported.addAndGet(legal.size());
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor workers) throws InterruptedIOException {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Keep waiting: a batch always finishes
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the import to finish");
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) { pool.resetPeakUsage(); }
+        }
+    }
+
+    /**
+     * @return the most heap used since the last reset, as the sum of each heap pool's peak,
+     * which is an upper bound since the pools may not have peaked at the same time
+     */
+    private static long peakHeap() {
+        long peak = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) { peak += pool.getPeakUsage().getUsed(); }
+        }
+
+        return peak;
+    }
+
+    /**
+     * How many games an import read, stored and rejected, how long it took and how much
+     * memory it needed
+     */
+    public static class Report {
+
+        private final long gamesRead;
+        private final long gamesImported;
+        private final long gamesRejected;
+        private final long nanos;
+        private final long peakHeapBytes;
+
+        public Report(long gamesRead, long gamesImported, long gamesRejected, long nanos, long peakHeapBytes) {
+            this.gamesRead = gamesRead;
+            this.gamesImported = gamesImported;
+            this.gamesRejected = gamesRejected;
+            this.nanos = nanos;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public long getGamesRead() {
+            return gamesRead;
+        }
+
+        /**
+         * @return how many games were legal and stored
+         */
+        public long getGamesImported() {
+            return gamesImported;
+        }
+
+        /**
+         * @return how many games had an illegal or unreadable move or tag
+         */
+        public long getGamesRejected() {
+            return gamesRejected;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : gamesRead / getSeconds();
+        }
+
+        /**
+         * @return the most heap the JVM used during the import, in bytes, including whatever
+         * else it was doing at the time
+         */
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d games read, %,d imported, %,d rejected in %.2f s (%,.0f games/s), peak heap %,d MB",
+                    gamesRead, gamesImported, gamesRejected, getSeconds(), getGamesPerSecond(), peakHeapBytes >> 20);
+        }
+    }
+
+    /**
+     * Imports a PGN file and prints how it went
+     *
+     * @param args the file to import, optionally a file to write the legal games to (by
+     *             default they are checked and then dropped), and optionally the number of
+     *             worker threads (default one per core)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: PgnImporter <games.pgn> [legal-games.pgn] [threads]");
+            return;
+        }
+
+        Path input = Path.of(args[0]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("Importing %s (%,d MB) with %d threads%n", input, Files.size(input) >> 20, threads);
+
+        Report report;
+        if (args.length > 1) {
+            try (PgnFileSink sink = new PgnFileSink(Path.of(args[1]))) {
+                report = new PgnImporter(sink, threads, DEFAULT_BATCH_SIZE).importFile(input);
+            }
+        } else {
+            report = new PgnImporter(games -> { }, threads, DEFAULT_BATCH_SIZE).importFile(input);
+        }
+
+        System.out.println(report);
+    }
+}
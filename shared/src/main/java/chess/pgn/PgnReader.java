@@ -0,0 +1,180 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Reads the games of a PGN file one at a time
+ * <p>
+ * Only the main line of each game is kept. Comments, variations, numeric annotations and
+ * move numbers are skipped. The text is read one character at a time, so a file of any
+ * size can be read without holding more than one game in memory.
+ */
+public class PgnReader {
+
+    private final Reader reader;
+
+    // The next character, read ahead, or -1 at the end of the text
+    private int next;
+
+    /**
+     * @param reader the text to read, ideally buffered
+     */
+    public PgnReader(Reader reader) throws IOException {
+        this.reader = reader;
+        next = reader.read();
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null if there are no more games
+     * @throws IOException if the text can't be read
+     * @throws IllegalArgumentException if a tag pair is not written correctly. The rest of
+     * the game is read first, so the next call reads the game after it.
+     */
+    public PgnGame next() throws IOException {
+        LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+        ArrayList<String> moves = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        IllegalArgumentException badTag = null;
+
+        while (true) {
+            skipWhitespace();
+            if (next == -1) { break; }
+
+            // Tags after the moves belong to the next game, which is missing its result
+            if (next == '[') {
+                if (!moves.isEmpty()) { break; }
+
+                try {
+                    readTag(tags, token);
+                } catch (IllegalArgumentException e) {
+                    if (badTag == null) { badTag = e; }
+                }
+                continue;
+            }
+
+            if (next == '{') {
+                skipPast('}');
+            } else if (next == ';' || next == '%') {
+                skipPast('\n');
+            } else if (next == '(') {
+                skipVariation();
+            } else if (next == ')' || next == '}' || next == ']') {
+                advance();
+            } else {
+                readToken(token);
+                if (isResult(token)) {
+                    if (badTag != null) { throw badTag; }
+                    return new PgnGame(tags, moves, token.toString());
+                }
+
+                String move = stripMoveNumber(token);
+                if (!move.isEmpty() && move.charAt(0) != '$') { moves.add(move); }
+            }
+        }
+
+        if (badTag != null) { throw badTag; }
+        if (tags.isEmpty() && moves.isEmpty()) { return null; }
+        return new PgnGame(tags, moves, PgnGame.UNKNOWN_RESULT);
+    }
+
+    /**
+     * Reads a tag pair such as [White "Carlsen, Magnus"]
+     */
+    private void readTag(LinkedHashMap<String, String> tags, StringBuilder text) throws IOException {
+        advance();
+        skipWhitespace();
+
+        text.setLength(0);
+        while (next != -1 && !Character.isWhitespace(next) && next != '"' && next != ']') {
+            text.append((char) next);
+            advance();
+        }
+        String name = text.toString();
+
+        skipWhitespace();
+        if (next != '"') {
+            skipPast(']');
+            throw new IllegalArgumentException("Invalid PGN tag \"" + name + "\": missing its value");
+        }
+        advance();
+
+        // Quotes and backslashes inside the value are escaped with a backslash
+        text.setLength(0);
+        while (next != -1 && next != '"') {
+            if (next == '\\') { advance(); }
+            if (next != -1) { text.append((char) next); }
+            advance();
+        }
+
+        skipPast(']');
+        tags.put(name, text.toString());
+    }
+
+    /**
+     * Reads a symbol, such as a move, move number or result, up to the next space or bracket
+     */
+    private void readToken(StringBuilder token) throws IOException {
+        token.setLength(0);
+
+        while (next != -1 && !Character.isWhitespace(next) && "{}()[];".indexOf(next) < 0) {
+            token.append((char) next);
+            advance();
+        }
+    }
+
+    /**
+     * Skips a variation, including any variations and comments inside it
+     */
+    private void skipVariation() throws IOException {
+        int depth = 0;
+
+        do {
+            if (next == '{') {
+                skipPast('}');
+                continue;
+            }
+
+            if (next == '(') { ++depth; }
+            if (next == ')') { --depth; }
+            advance();
+        } while (depth > 0 && next != -1);
+    }
+
+    private void skipPast(char end) throws IOException {
+        while (next != -1 && next != end) { advance(); }
+        advance();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (next != -1 && Character.isWhitespace(next)) { advance(); }
+    }
+
+    private void advance() throws IOException {
+        if (next != -1) { next = reader.read(); }
+    }
+
+    private static boolean isResult(CharSequence token) {
+        String text = token.toString();
+        return text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals(PgnGame.UNKNOWN_RESULT);
+    }
+
+    /**
+     * @return a token without a move number in front, such as "12." or "12...", which may
+     * be written with or without a space before the move
+     */
+    private static String stripMoveNumber(CharSequence token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) { ++i; }
+
+        // Castling can be written with zeros, so digits only count as a move number before a dot
+        if (i == token.length() || token.charAt(i) != '.') { return token.toString(); }
+
+        while (i < token.length() && token.charAt(i) == '.') { ++i; }
+        return token.subSequence(i, token.length()).toString();
+    }
+}
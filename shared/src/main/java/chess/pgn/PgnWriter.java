@@ -0,0 +1,111 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes games in PGN export format: the tag pairs, a blank line, then the numbered moves
+ * and the result, with lines kept to at most 80 characters, and a blank line after each game
+ */
+public class PgnWriter {
+
+    private static final int MAX_LINE = 80;
+
+    private final Writer writer;
+
+    /**
+     * @param writer where to write the games, ideally buffered
+     */
+    public PgnWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes one game
+     *
+     * @param game the game
+     * @throws IOException if the text can't be written
+     */
+    public void write(PgnGame game) throws IOException {
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            writer.write('[');
+            writer.write(tag.getKey());
+            writer.write(" \"");
+            writer.write(escape(tag.getValue()));
+            writer.write("\"]\n");
+        }
+        if (!game.getTags().isEmpty()) { writer.write('\n'); }
+
+        StringBuilder line = new StringBuilder(MAX_LINE);
+        int moveNumber = 1;
+        boolean whiteToMove = true;
+
+        // A game set up from a position can start with either side, at any move number
+        String fen = game.getTag("FEN");
+        if (fen != null) {
+            String[] fields = fen.trim().split("\\s+");
+            if (fields.length > 1) { whiteToMove = !fields[1].equals("b"); }
+            if (fields.length > 5) { moveNumber = Integer.parseInt(fields[5]); }
+        }
+
+        boolean first = true;
+        for (String move : game.getMoves()) {
+            if (whiteToMove) {
+                addToken(line, moveNumber + ".");
+            } else if (first) {
+                addToken(line, moveNumber + "...");
+            }
+            addToken(line, move);
+
+            if (!whiteToMove) { ++moveNumber; }
+            whiteToMove = !whiteToMove;
+            first = false;
+        }
+        addToken(line, game.getResult());
+
+        writer.write(line.toString());
+        writer.write("\n\n");
+    }
+
+    /**
+     * Writes one game to a string
+     *
+     * @param game the game
+     * @return the game in PGN
+     */
+    public static String format(PgnGame game) {
+        StringWriter text = new StringWriter();
+
+        try {
+            new PgnWriter(text).write(game);
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringWriter can't fail", e);
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Adds a move, move number or result to the current line, first writing out the line if
+     * it would get too long
+     */
+    private void addToken(StringBuilder line, String token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > MAX_LINE) {
+            writer.write(line.toString());
+            writer.write('\n');
+            line.setLength(0);
+        }
+
+        if (!line.isEmpty()) { line.append(' '); }
+        line.append(token);
+    }
+
+    /**
+     * @return a tag value with its quotes and backslashes escaped with a backslash
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
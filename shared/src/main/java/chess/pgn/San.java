@@ -0,0 +1,282 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.LegalMoveGenerator;
+import chess.MoveBuffer;
+import chess.PackedMove;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation (SAN), the notation used in PGN
+ * files, for example "e4", "Nbd7", "exd5", "e8=Q+" and "O-O"
+ * <p>
+ * A SAN move only makes sense in a position, since it names the piece type and end square
+ * and leaves out where the piece starts unless two pieces could make the same move. It is
+ * read by matching it against the legal moves of the game's position. Writing one doesn't
+ * need every legal move: only the other pieces of the same type that attack the end square
+ * are looked at to decide whether the start square has to be given.
+ */
+public final class San {
+
+    private San() {
+
+    }
+
+    /**
+     * Finds the legal move a SAN string describes. Check and annotation marks such as "+",
+     * "#", "!" and "?" are ignored, and a promotion may be written with or without "=".
+     *
+     * @param game the game whose position the move is made in
+     * @param san the move
+     * @return the move
+     * @throws IllegalArgumentException if the string matches no legal move, or more than one
+     */
+    public static ChessMove parse(ChessGame game, String san) {
+        MoveBuffer moves = new MoveBuffer();
+        game.generateAllLegalMoves(game.getTeamTurn(), moves);
+        return parse(game, san, moves);
+    }
+
+    /**
+     * Finds the legal move a SAN string describes, among legal moves already generated
+     *
+     * @param game the game whose position the move is made in
+     * @param san the move
+     * @param legalMoves the legal moves of the position, as packed moves
+     * @return the move
+     * @throws IllegalArgumentException if the string matches no legal move, or more than one
+     */
+    public static ChessMove parse(ChessGame game, String san, MoveBuffer legalMoves) {
+        // Drop check marks and annotations from the end
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) { --end; }
+        if (end == 0) { throw invalid(san, "it is empty"); }
+
+        if (san.startsWith("O-O", 0) || san.startsWith("0-0", 0)) {
+            boolean queenside = end >= 5 && (san.startsWith("O-O-O", 0) || san.startsWith("0-0-0", 0));
+            return findCastling(san, legalMoves, queenside);
+        }
+
+        int i = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if ("KQBNR".indexOf(san.charAt(0)) >= 0) {
+            type = pieceType(san.charAt(0));
+            ++i;
+        }
+
+        // A promotion comes last, after the end square and an optional "="
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end > 2 && "QBNR".indexOf(san.charAt(end - 1)) >= 0) {
+            promotion = pieceType(san.charAt(end - 1));
+            --end;
+            if (san.charAt(end - 1) == '=') { --end; }
+        }
+
+        // The end square is always the last two characters left
+        if (end - i < 2) { throw invalid(san, "it has no end square"); }
+        int toCol = file(san.charAt(end - 2));
+        int toRow = rank(san.charAt(end - 1));
+        if (toCol == 0 || toRow == 0) { throw invalid(san, "it has no end square"); }
+
+        // Anything between the piece and the end square narrows down where the piece starts
+        int fromCol = 0;
+        int fromRow = 0;
+        for (; i < end - 2; ++i) {
+            char c = san.charAt(i);
+
+            if (file(c) != 0) {
+                fromCol = file(c);
+            } else if (rank(c) != 0) {
+                fromRow = rank(c);
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw invalid(san, "unexpected '" + c + "'");
+            }
+        }
+
+        int to = (toRow - 1) * 8 + toCol - 1;
+        int found = 0;
+        for (int j = 0; j < legalMoves.size(); ++j) {
+            int move = legalMoves.get(j);
+            if (PackedMove.to(move) != to) { continue; }
+
+            int from = PackedMove.from(move);
+            if (game.getBoard().getPiece(from).getPieceType() != type || PackedMove.promotion(move) != promotion) { continue; }
+            if (fromCol != 0 && from % 8 + 1 != fromCol) { continue; }
+            if (fromRow != 0 && from / 8 + 1 != fromRow) { continue; }
+            if (found != 0) { throw invalid(san, "more than one piece can make it"); }
+
+            found = move;
+        }
+
+        if (found == 0) { throw invalid(san, "no legal move matches it"); }
+        return PackedMove.toChessMove(found);
+    }
+
+    /**
+     * Writes a move in SAN, with "+" after a move that gives check and "#" after one that
+     * gives checkmate
+     *
+     * @param game the game whose position the move is made in, which is left unchanged
+     * @param move the move, which must be legal in the game's position
+     * @return the move in SAN
+     * @throws IllegalArgumentException if there is no piece on the move's start square
+     */
+    public static String write(ChessGame game, ChessMove move) {
+        ChessBoard board = game.getBoard();
+        int from = move.getStartPosition().index();
+        int to = move.getEndPosition().index();
+
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) { throw new IllegalArgumentException("Cannot write " + move + " in SAN: there is no piece to move"); }
+
+        StringBuilder san = new StringBuilder(8);
+        ChessPiece.PieceType castling = game.isCastling(move);
+        boolean capture = board.getPiece(to) != null || game.isEnPassant(move);
+
+        if (castling != null) {
+            san.append(castling == ChessPiece.PieceType.QUEEN ? "O-O-O" : "O-O");
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            // A pawn capture names the pawn's file, which is always enough to tell two apart
+            if (capture) { san.append(fileLetter(from)).append('x'); }
+            appendSquare(san, to);
+
+            if (move.getPromotionPiece() != null) { san.append('=').append(pieceLetter(move.getPromotionPiece())); }
+        } else {
+            san.append(pieceLetter(piece.getPieceType()));
+            appendOrigin(san, board, piece, from, to);
+            if (capture) { san.append('x'); }
+            appendSquare(san, to);
+        }
+
+        // Play the move to see whether it checks or mates
+        ChessGame.TeamColor opponent = piece.getTeamColor() == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        board.makeMove(move);
+        LegalMoveGenerator reply = new LegalMoveGenerator(board, opponent);
+        if (reply.isInCheck()) { san.append(reply.hasLegalMove() ? '+' : '#'); }
+        board.unmakeMove();
+
+        return san.toString();
+    }
+
+    /**
+     * Adds as much of a piece's start square as is needed to tell it apart from any other
+     * piece of the same type that can legally move to the same square
+     */
+    private static void appendOrigin(StringBuilder san, ChessBoard board, ChessPiece piece, int from, int to) {
+        // Only pieces of the same type that attack the end square could be confused with this one
+        long others = board.attackersTo(to, piece.getTeamColor(), board.getOccupancy()) &
+                board.getPieces(piece.getTeamColor(), piece.getPieceType()) & ~(1L << from);
+        if (others == 0) { return; }
+
+        // The rare piece that attacks the square but can't go there, because it is pinned or
+        // its king is in check, doesn't count, so its legal moves are checked
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, piece.getTeamColor());
+        MoveBuffer moves = new MoveBuffer(32);
+        boolean sameFile = false;
+        boolean sameRank = false;
+        boolean ambiguous = false;
+
+        for (; others != 0; others &= others - 1) {
+            int other = Long.numberOfTrailingZeros(others);
+
+            moves.clear();
+            generator.generateFrom(other, moves);
+            if (!canReach(moves, to)) { continue; }
+
+            ambiguous = true;
+            sameFile |= other % 8 == from % 8;
+            sameRank |= other / 8 == from / 8;
+        }
+
+        // The file is preferred, then the rank, and only if neither is enough both are given
+        if (!ambiguous) { return; }
+        if (!sameFile) {
+            san.append(fileLetter(from));
+        } else if (!sameRank) {
+            san.append(rankDigit(from));
+        } else {
+            appendSquare(san, from);
+        }
+    }
+
+    private static boolean canReach(MoveBuffer moves, int to) {
+        for (int i = 0; i < moves.size(); ++i) {
+            if (PackedMove.to(moves.get(i)) == to) { return true; }
+        }
+
+        return false;
+    }
+
+    private static ChessMove findCastling(String san, MoveBuffer legalMoves, boolean queenside) {
+        for (int i = 0; i < legalMoves.size(); ++i) {
+            int move = legalMoves.get(i);
+            if (!PackedMove.hasFlag(move, PackedMove.CASTLING)) { continue; }
+
+            // The king ends on column 3 when castling queenside and column 7 when kingside
+            if ((PackedMove.to(move) % 8 == 2) == queenside) { return PackedMove.toChessMove(move); }
+        }
+
+        throw invalid(san, "castling is not legal here");
+    }
+
+    /**
+     * @return the type of piece a SAN letter stands for
+     */
+    static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            default -> ChessPiece.PieceType.PAWN;
+        };
+    }
+
+    /**
+     * @return the SAN letter of a piece type, which is never a pawn
+     */
+    static char pieceLetter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> throw new IllegalArgumentException("Pawns have no SAN letter");
+        };
+    }
+
+    private static void appendSquare(StringBuilder san, int square) {
+        san.append(fileLetter(square)).append(rankDigit(square));
+    }
+
+    private static char fileLetter(int square) {
+        return (char) ('a' + square % 8);
+    }
+
+    private static char rankDigit(int square) {
+        return (char) ('1' + square / 8);
+    }
+
+    /**
+     * @return the column (1-8) of a file letter, or 0 if it isn't one
+     */
+    private static int file(char c) {
+        return c >= 'a' && c <= 'h' ? c - 'a' + 1 : 0;
+    }
+
+    /**
+     * @return the row (1-8) of a rank digit, or 0 if it isn't one
+     */
+    private static int rank(char c) {
+        return c >= '1' && c <= '8' ? c - '0' : 0;
+    }
+
+    private static IllegalArgumentException invalid(String san, String reason) {
+        return new IllegalArgumentException("Invalid SAN move \"" + san + "\": " + reason);
+    }
+}
@@ -0,0 +1,74 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Scores a position for the search by its material and where the pieces stand
+ * <p>
+ * The board keeps a middlegame and an endgame piece-square score up to date as pieces
+ * move (see {@link PieceSquareTables}), so scoring a position only blends those two by
+ * the game phase instead of visiting every piece.
+ */
+public final class Evaluator {
+
+    // Rough value of each type of piece in centipawns for ordering captures, indexed by
+    // PieceType ordinal. The king is never captured, so it is worth nothing here.
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private Evaluator() {
+
+    }
+
+    /**
+     * Scores a position from the point of view of the team whose turn it is
+     *
+     * @param board the position to score
+     * @return the score in centipawns, positive when the team to move is ahead
+     */
+    public static int evaluate(ChessBoard board) {
+        int score = PieceSquareTables.taper(board.getMiddlegameScore(), board.getEndgameScore(), board.getGamePhase());
+        return board.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Scores a position the same way as {@link #evaluate}, but by adding up every piece
+     * instead of using the scores the board keeps. Slower; useful for checking the board's
+     * scores and for measuring what keeping them saves.
+     *
+     * @param board the position to score
+     * @return the score in centipawns, positive when the team to move is ahead
+     */
+    public static int evaluateFromScratch(ChessBoard board) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                long pieces = board.getPieces(color, type);
+
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+
+                    middlegame += PieceSquareTables.middlegame(color, type, square);
+                    endgame += PieceSquareTables.endgame(color, type, square);
+                    phase += PieceSquareTables.phase(type);
+                }
+            }
+        }
+
+        int score = PieceSquareTables.taper(middlegame, endgame, phase);
+        return board.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the value of a type of piece in centipawns
+     */
+    public static int pieceValue(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,200 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.MoveBuffer;
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Decides which moves the search tries first, since alpha-beta cuts off the most when
+ * the best move comes first
+ * <p>
+ * Moves are tried in this order:
+ * <ol>
+ *     <li>The best move from the transposition table</li>
+ *     <li>Captures and promotions, most valuable victim first, and of those the least
+ *     valuable attacker first (MVV-LVA), so a pawn taking a queen beats a queen taking a pawn</li>
+ *     <li>The two killer moves of the ply: quiet moves that caused a cutoff in a sibling
+ *     position, which often refute this position as well</li>
+ *     <li>Other quiet moves, by how often moving a piece between the same two squares has
+ *     caused a cutoff anywhere in the search (the butterfly history table)</li>
+ * </ol>
+ * Moves are scored once per position and then picked one at a time, best first, so a
+ * position that cuts off after a move or two never pays to sort the rest.
+ */
+public final class MoveOrderer {
+
+    private static final int TABLE_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int FIRST_KILLER_SCORE = 1 << 27;
+    private static final int SECOND_KILLER_SCORE = FIRST_KILLER_SCORE - 1;
+
+    // History scores are halved whenever one gets this large, so they stay below the killers
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    // How good a piece is to capture and how cheap it is to capture with, indexed by
+    // PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] VICTIM_RANK = {0, 5, 3, 2, 4, 1};
+    private static final int[] ATTACKER_RANK = {6, 5, 3, 2, 4, 1};
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+
+    // Indexed by color * 4096 + from * 64 + to
+    private final int[] history = new int[2 * 64 * 64];
+
+    // The scores of the moves in the buffer of each ply, in the same order
+    private final int[][] scores = new int[Search.MAX_PLY][64];
+
+    /**
+     * Scores every move in a buffer, so they can be picked best first with {@link #next}
+     *
+     * @param board the position the moves are for
+     * @param moves the moves
+     * @param ply the ply the moves are searched at
+     * @param tableMove the best move from the transposition table, or 0 for none
+     */
+    void score(ChessBoard board, MoveBuffer moves, int ply, int tableMove) {
+        if (scores[ply].length < moves.size()) { scores[ply] = new int[moves.size() * 2]; }
+
+        int[] plyScores = scores[ply];
+        int color = board.getTeamTurn().ordinal();
+
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+
+            if (move == tableMove) {
+                plyScores[i] = TABLE_MOVE_SCORE;
+            } else if (isTactical(move)) {
+                plyScores[i] = CAPTURE_SCORE + captureScore(board, move);
+            } else if (move == killers[ply][0]) {
+                plyScores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                plyScores[i] = SECOND_KILLER_SCORE;
+            } else {
+                plyScores[i] = history[historyIndex(color, move)];
+            }
+        }
+    }
+
+    /**
+     * Scores only the captures and promotions in a buffer, moving them to the front
+     *
+     * @return how many captures and promotions there are
+     */
+    int scoreCaptures(ChessBoard board, MoveBuffer moves, int ply) {
+        if (scores[ply].length < moves.size()) { scores[ply] = new int[moves.size() * 2]; }
+
+        int count = 0;
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            if (!isTactical(move)) { continue; }
+
+            scores[ply][count] = captureScore(board, move);
+            moves.set(count++, move);
+        }
+
+        return count;
+    }
+
+    /**
+     * Swaps the best scored move among those from index on into index
+     *
+     * @return the move now at index
+     */
+    int next(MoveBuffer moves, int ply, int index) {
+        return next(moves, ply, index, moves.size());
+    }
+
+    /**
+     * Swaps the best scored move among moves index to end - 1 into index
+     *
+     * @return the move now at index
+     */
+    int next(MoveBuffer moves, int ply, int index, int end) {
+        int[] plyScores = scores[ply];
+        int best = index;
+
+        for (int i = index + 1; i < end; ++i) {
+            if (plyScores[i] > plyScores[best]) { best = i; }
+        }
+
+        int move = moves.get(best);
+        int score = plyScores[best];
+        moves.set(best, moves.get(index));
+        plyScores[best] = plyScores[index];
+        moves.set(index, move);
+        plyScores[index] = score;
+
+        return move;
+    }
+
+    /**
+     * Remembers a move that caused a cutoff. Captures already come early, so only quiet
+     * moves are remembered.
+     *
+     * @param board the position the move was made from
+     * @param move the move
+     * @param ply the ply of the position
+     * @param depth how deep the position was being searched. Cutoffs far from the leaves
+     *              save more work, so they count for more.
+     */
+    void recordCutoff(ChessBoard board, int move, int ply, int depth) {
+        if (isTactical(move)) { return; }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int index = historyIndex(board.getTeamTurn().ordinal(), move);
+        history[index] += depth * depth;
+
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; ++i) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Forgets the killer moves and history, for searching an unrelated position
+     */
+    void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, 0);
+        }
+        Arrays.fill(history, 0);
+    }
+
+    /**
+     * @return the MVV-LVA score of a capture or promotion: higher for a more valuable victim,
+     * and for the same victim, higher for a less valuable attacker
+     */
+    private static int captureScore(ChessBoard board, int move) {
+        ChessPiece attacker = board.getPiece(PackedMove.from(move));
+        ChessPiece victim = board.getPiece(PackedMove.to(move));
+
+        // An en passant capture takes a pawn from a square other than the one moved to
+        int victimRank = victim != null ? VICTIM_RANK[victim.getPieceType().ordinal()] :
+                PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ? VICTIM_RANK[ChessPiece.PieceType.PAWN.ordinal()] : 0;
+
+        // A promotion gains the piece promoted to, almost as good as capturing it
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        if (promotion != null) { victimRank += VICTIM_RANK[promotion.ordinal()]; }
+
+        return victimRank * 8 - ATTACKER_RANK[attacker.getPieceType().ordinal()];
+    }
+
+    /**
+     * @return whether a move is a capture or a promotion
+     */
+    private static boolean isTactical(int move) {
+        return PackedMove.hasFlag(move, PackedMove.CAPTURE) || PackedMove.promotion(move) != null;
+    }
+
+    private static int historyIndex(int color, int move) {
+        return color * 4096 + PackedMove.from(move) * 64 + PackedMove.to(move);
+    }
+}
@@ -0,0 +1,149 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.endgame.Bitbases;
+
+import java.util.ArrayList;
+
+/**
+ * Searches one position with several threads at once ("Lazy SMP")
+ * <p>
+ * Every thread runs its own ordinary {@link Search} of the whole position, but they all
+ * share one transposition table. A thread that reaches a position another thread already
+ * searched can reuse that result, so together they finish each depth sooner than one
+ * thread could. Every thread searches depth 1 first, and then half of the helper threads
+ * skip depth 2, which keeps them a depth ahead of the others so the threads spread out over
+ * different parts of the tree instead of all doing the same work.
+ * The calling thread is the main search; when it finishes, the helpers are stopped.
+ */
+public class ParallelSearch {
+
+    private final ChessGame game;
+    private final int threads;
+    private final TranspositionTable table;
+    private Bitbases bitbases;
+
+    private volatile Search[] workers;
+    private volatile boolean stopped;
+
+    public ParallelSearch(ChessGame game, int threads) {
+        this(game, threads, new TranspositionTable(Search.DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a parallel search that shares a given transposition table between its threads
+     *
+     * @param game the game to search from
+     * @param threads the number of threads to search with, including the calling thread
+     * @param table the transposition table to share
+     */
+    public ParallelSearch(ChessGame game, int threads, TranspositionTable table) {
+        this.game = game;
+        this.threads = Math.max(1, threads);
+        this.table = table;
+    }
+
+    /**
+     * Searches for the best move with every thread, returning when the main search reaches
+     * a limit or {@link #stop()} is called
+     *
+     * @param maxDepth the deepest depth to search
+     * @param timeLimitMillis the longest to search in milliseconds, or 0 for no limit
+     * @param nodeLimit the most positions to visit across all threads, or 0 for no limit
+     * @return the deepest result any thread finished, with the node count of all threads
+     */
+    public SearchResult search(int maxDepth, long timeLimitMillis, long nodeLimit) {
+        long start = System.nanoTime();
+        long workerNodeLimit = nodeLimit > 0 ? Math.max(1, nodeLimit / threads) : 0;
+        table.newSearch();
+
+        // Each worker copies the board, so they can all search at once
+        Search[] searches = new Search[threads];
+        for (int i = 0; i < threads; ++i) {
+            searches[i] = new Search(game, table);
+            searches[i].setBitbases(bitbases);
+        }
+        workers = searches;
+        if (stopped) { stop(); }
+
+        SearchResult[] results = new SearchResult[threads];
+        ArrayList<Thread> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; ++i) {
+            int worker = i;
+            Thread helper = new Thread(() -> results[worker] =
+                    searches[worker].iterate(firstDepth(worker), maxDepth, timeLimitMillis, workerNodeLimit));
+            helper.setName("search-helper-" + i);
+            helper.setDaemon(true);
+            helper.start();
+            helpers.add(helper);
+        }
+
+        results[0] = searches[0].iterate(firstDepth(0), maxDepth, timeLimitMillis, workerNodeLimit);
+
+        // The main search is done, so the helpers have nothing left to contribute
+        for (int i = 1; i < threads; ++i) {
+            searches[i].stop();
+        }
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers = null;
+        stopped = false;
+
+        // Use the deepest finished result, preferring the main search's on a tie
+        SearchResult best = results[0];
+        long nodes = 0;
+        for (SearchResult result : results) {
+            if (result == null) { continue; }
+            nodes += result.getNodes();
+            if (result.getDepth() > best.getDepth() && result.getBestMove() != null) { best = result; }
+        }
+
+        return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes,
+                System.nanoTime() - start, best.getPrincipalVariation());
+    }
+
+    /**
+     * @param worker the number of the thread, 0 being the main search
+     * @return the depth the thread searches after depth 1 (see {@link Search#iterate}): 3 for
+     * odd helpers, which puts them a depth ahead, and 2 for the rest
+     */
+    static int firstDepth(int worker) {
+        return 2 + worker % 2;
+    }
+
+    /**
+     * Asks a running search to stop every thread as soon as possible. Safe to call from
+     * another thread.
+     */
+    public void stop() {
+        stopped = true;
+
+        Search[] current = workers;
+        if (current == null) { return; }
+
+        for (Search search : current) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Sets the bitbases every thread looks up positions in (see {@link Search#setBitbases})
+     *
+     * @param bitbases the bitbases, or null to not use any
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * @return the number of threads this search uses
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,526 @@
+package chess.search;
+
+import chess.*;
+import chess.endgame.Bitbase;
+import chess.endgame.Bitbases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Finds the best move in a position with an alpha-beta search
+ * <p>
+ * The search looks one move deeper on each iteration (iterative deepening), so there is
+ * always a complete answer from the last finished depth when the time or node budget runs
+ * out. Each iteration is a negamax alpha-beta search, followed at the leaves by a
+ * quiescence search of captures so positions are never scored in the middle of an exchange.
+ * The search works on its own copy of the board, so the game passed in is never changed.
+ */
+public class Search {
+
+    /**
+     * Score for checkmating on the current move. A mate found n moves deeper scores
+     * MATE_SCORE - n, so quicker mates are preferred.
+     */
+    public static final int MATE_SCORE = 100_000;
+
+    /**
+     * The deepest the search will ever look, counting quiescence search
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * Size of the transposition table a search creates when it isn't given one
+     */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    /**
+     * Score for a position a bitbase says is won. Far above any material score, but below
+     * the mate scores, since the mate itself is still some way off.
+     */
+    public static final int BITBASE_WIN_SCORE = 20_000;
+
+    /**
+     * How the search orders the moves of a position
+     */
+    public enum MoveOrdering {
+        /**
+         * Try moves in the order they are generated, except for the best move remembered in
+         * the transposition table, and captures of the most valuable piece first in the
+         * quiescence search
+         */
+        GENERATED,
+        /**
+         * Try moves in the order given by a MoveOrderer: MVV-LVA captures, killer moves and
+         * the history table
+         */
+        HEURISTIC
+    }
+
+    private static final int INFINITY = MATE_SCORE + 1;
+
+    // Returned by probeBitbases when no bitbase covers the position
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    // Check the clock only this often, since reading it is slow compared to visiting a node
+    private static final long CHECK_INTERVAL = 2048;
+
+    private final ChessBoard board = new ChessBoard();
+    private final TranspositionTable table;
+    private final MoveOrderer orderer = new MoveOrderer();
+    private MoveOrdering moveOrdering = MoveOrdering.HEURISTIC;
+    private Bitbases bitbases;
+    private boolean rootInBitbase;
+
+    // A move buffer for each ply so nothing is allocated while searching
+    private final MoveBuffer[] moveBuffers = new MoveBuffer[MAX_PLY];
+
+    // Best line found from each ply, as packed moves (see PackedMove)
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopped;
+
+    public Search(ChessGame game) {
+        this(game, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a search that stores positions in a given transposition table, which may be
+     * shared with other searches, including ones running on other threads
+     *
+     * @param game the game to search from
+     * @param table the transposition table to use
+     */
+    public Search(ChessGame game, TranspositionTable table) {
+        board.setBoard(game.getBoard());
+        this.table = table;
+
+        for (int i = 0; i < MAX_PLY; ++i) {
+            moveBuffers[i] = new MoveBuffer(64);
+        }
+    }
+
+    /**
+     * Searches for the best move, deepening until a limit is reached. Every root move is
+     * always tried at depth 1, even if the limits run out first, so a legal move is returned
+     * whenever there is one (with a reported depth of 0 if depth 1 didn't finish).
+     *
+     * @param maxDepth the deepest depth to search
+     * @param timeLimitMillis the longest to search in milliseconds, or 0 for no limit
+     * @param nodeLimit the most positions to visit, or 0 for no limit
+     * @return the best move found and the statistics of the search
+     */
+    public SearchResult search(int maxDepth, long timeLimitMillis, long nodeLimit) {
+        stopped = false;
+        table.newSearch();
+        orderer.clear();
+
+        return iterate(1, maxDepth, timeLimitMillis, nodeLimit);
+    }
+
+    /**
+     * Runs iterative deepening without starting a new search in the transposition table or
+     * clearing a stop request, so several searches can work on one position together
+     *
+     * @param firstDepth the depth to search right after depth 1 (see {@link #nextDepth}).
+     *                   Depth 1 is always searched first, so a limit that stops a deeper
+     *                   iteration leaves a complete result to fall back on.
+     */
+    SearchResult iterate(int firstDepth, int maxDepth, long timeLimitMillis, long nodeLimit) {
+        long start = System.nanoTime();
+        this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+        deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000 : Long.MAX_VALUE;
+        nodes = 0;
+        aborted = false;
+
+        // A bitbase only knows who wins, not how, so it is no help once the game is already
+        // in one of its endgames. Then the search has to find the way forward itself.
+        rootInBitbase = bitbases != null && bitbases.probe(board) != null;
+
+        SearchResult result = new SearchResult(null, 0, 0, 0, 0, new ArrayList<>());
+        int[] previousPv = new int[0];
+
+        int lastDepth = Math.min(maxDepth, MAX_PLY - 1);
+        for (int depth = 1; depth <= lastDepth; depth = nextDepth(depth, firstDepth)) {
+            int score = searchRoot(depth, previousPv);
+
+            // A stopped iteration may not have tried every move, so keep the last complete one.
+            // If none finished, keep the stopped one's move so there is something to play.
+            if (aborted && result.getBestMove() != null) { break; }
+
+            previousPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            result = new SearchResult(previousPv.length == 0 ? null : PackedMove.toChessMove(previousPv[0]),
+                    score, aborted ? 0 : depth, nodes, System.nanoTime() - start, toChessMoves(previousPv));
+
+            // Nothing deeper can change a forced mate or a position with no moves
+            if (aborted || previousPv.length == 0 || result.isMate()) { break; }
+        }
+
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+                System.nanoTime() - start, result.getPrincipalVariation());
+    }
+
+    /**
+     * Finds the depth iterative deepening searches after another. Depth 1 is followed by
+     * firstDepth, skipping the depths in between, and every depth after that by the next one.
+     *
+     * @param depth the depth just searched
+     * @param firstDepth the depth to search after depth 1, or 2 or less to skip none
+     * @return the depth to search next
+     */
+    static int nextDepth(int depth, int firstDepth) {
+        return depth == 1 ? Math.max(2, firstDepth) : depth + 1;
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. It returns the result of the last
+     * depth it finished. Safe to call from another thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Sets how moves are ordered, to measure how much ordering them saves
+     *
+     * @param moveOrdering the way to order moves
+     */
+    public void setMoveOrdering(MoveOrdering moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * @return how this search orders moves
+     */
+    public MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    /**
+     * Sets the bitbases to look up positions in. A line that reaches a position they cover
+     * is scored from them instead of being searched further.
+     *
+     * @param bitbases the bitbases, or null to not use any
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * @return the transposition table this search stores positions in
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Searches every root move to a depth, trying the best move of the last iteration first
+     */
+    private int searchRoot(int depth, int[] previousPv) {
+        pvLength[0] = 0;
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, board.getTeamTurn());
+        MoveBuffer moves = moveBuffers[0];
+        moves.clear();
+        generator.generate(moves);
+
+        if (moves.isEmpty()) { return generator.isInCheck() ? -MATE_SCORE : 0; }
+
+        boolean ordered = moveOrdering == MoveOrdering.HEURISTIC;
+        int previousBest = previousPv.length > 0 ? previousPv[0] : 0;
+        if (ordered) {
+            orderer.score(board, moves, 0, previousBest);
+        } else if (previousBest != 0) {
+            moveToFront(moves, previousBest);
+        }
+
+        int alpha = -INFINITY;
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = ordered ? orderer.next(moves, 0, i) : moves.get(i);
+
+            board.makeMove(PackedMove.toChessMove(move));
+            int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+            board.unmakeMove();
+
+            // Depth 1 always finishes so there is a move to return
+            if (aborted && depth > 1 && previousPv.length > 0) { return 0; }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(0, move);
+            }
+        }
+
+        // Moves searched after the stop were scored from cut-off lines, so the score isn't exact
+        if (!aborted) { table.store(board.getZobristKey(), pvTable[0][0], alpha, depth, TranspositionTable.EXACT); }
+        return alpha;
+    }
+
+    /**
+     * Scores a position by searching every move to a depth, cutting off lines that can't
+     * change the result
+     *
+     * @return the score for the team to move, between alpha and beta
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+
+        if (isDrawn()) { return 0; }
+        if (bitbases != null && !rootInBitbase) {
+            int score = probeBitbases(ply);
+            if (score != NO_SCORE) { return score; }
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) { return quiescence(alpha, beta, ply); }
+        if (countNode()) { return 0; }
+
+        // Use an earlier search of this position if it went deep enough to settle the score
+        long key = board.getZobristKey();
+        long entry = table.probe(key);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+
+            if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                    (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, board.getTeamTurn());
+        MoveBuffer moves = moveBuffers[ply];
+        moves.clear();
+        generator.generate(moves);
+
+        // No moves is checkmate if in check and stalemate otherwise
+        if (moves.isEmpty()) { return generator.isInCheck() ? -MATE_SCORE + ply : 0; }
+
+        // The best move from an earlier search is the most likely to be best again
+        boolean ordered = moveOrdering == MoveOrdering.HEURISTIC;
+        int tableMove = entry != 0 ? TranspositionTable.move(entry) : 0;
+        if (ordered) {
+            orderer.score(board, moves, ply, tableMove);
+        } else if (tableMove != 0) {
+            moveToFront(moves, tableMove);
+        }
+
+        int originalAlpha = alpha;
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = ordered ? orderer.next(moves, ply, i) : moves.get(i);
+
+            board.makeMove(PackedMove.toChessMove(move));
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+
+            if (aborted) { return 0; }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+
+                // The opponent already has a better option earlier on, so they won't allow this line
+                if (alpha >= beta) {
+                    if (ordered) { orderer.recordCutoff(board, move, ply, depth); }
+                    table.store(key, move, toTable(beta, ply), depth, TranspositionTable.LOWER_BOUND);
+                    return beta;
+                }
+            }
+        }
+
+        if (alpha > originalAlpha) {
+            table.store(key, pvTable[ply][ply], toTable(alpha, ply), depth, TranspositionTable.EXACT);
+        } else {
+            table.store(key, 0, toTable(alpha, ply), depth, TranspositionTable.UPPER_BOUND);
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Keeps searching captures and promotions until the position is quiet, so it is only
+     * scored once nothing is hanging. The most valuable pieces are captured first, which
+     * cuts off most of the other captures early.
+     *
+     * @return the score for the team to move, between alpha and beta
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (countNode()) { return 0; }
+
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, board.getTeamTurn());
+        MoveBuffer moves = moveBuffers[ply];
+        moves.clear();
+        generator.generate(moves);
+
+        // Checkmate and stalemate are still recognized here, but checks are otherwise not
+        // followed, since searching every way out of check would never settle down
+        if (moves.isEmpty()) { return generator.isInCheck() ? -MATE_SCORE + ply : 0; }
+
+        // The team to move can usually do at least as well as the current score by not capturing
+        int standPat = Evaluator.evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY - 1) { return standPat; }
+        if (standPat > alpha) { alpha = standPat; }
+
+        boolean ordered = moveOrdering == MoveOrdering.HEURISTIC;
+        int captures = ordered ? orderer.scoreCaptures(board, moves, ply) : keepCaptures(moves);
+        for (int i = 0; i < captures; ++i) {
+            int move = ordered ? orderer.next(moves, ply, i, captures) : takeMostValuable(moves, i, captures);
+
+            board.makeMove(PackedMove.toChessMove(move));
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            board.unmakeMove();
+
+            if (aborted) { return 0; }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+
+                if (alpha >= beta) { return beta; }
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Moves the captures and promotions to the front of the buffer
+     *
+     * @return how many there are
+     */
+    private static int keepCaptures(MoveBuffer moves) {
+        int count = 0;
+
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            if (PackedMove.hasFlag(move, PackedMove.CAPTURE) || PackedMove.promotion(move) != null) { moves.set(count++, move); }
+        }
+
+        return count;
+    }
+
+    /**
+     * Swaps the capture of the most valuable piece among moves start to end - 1 into start
+     *
+     * @return the move now at start
+     */
+    private int takeMostValuable(MoveBuffer moves, int start, int end) {
+        int best = start;
+        int bestValue = -1;
+
+        for (int i = start; i < end; ++i) {
+            ChessPiece victim = board.getPiece(PackedMove.to(moves.get(i)));
+            int value = victim == null ? 100 : Evaluator.pieceValue(victim.getPieceType());
+            if (value > bestValue) {
+                best = i;
+                bestValue = value;
+            }
+        }
+
+        int move = moves.get(best);
+        moves.set(best, moves.get(start));
+        moves.set(start, move);
+        return move;
+    }
+
+    /**
+     * Looks up the current position in the bitbases
+     *
+     * @return the score for the team to move, or NO_SCORE if no bitbase covers the position
+     */
+    private int probeBitbases(int ply) {
+        Bitbase.Result result = bitbases.probe(board);
+        if (result == null) { return NO_SCORE; }
+
+        // Prefer reaching a won position sooner, like a quicker mate
+        return switch (result) {
+            case WIN -> BITBASE_WIN_SCORE - ply;
+            case LOSS -> -BITBASE_WIN_SCORE + ply;
+            case DRAW -> 0;
+        };
+    }
+
+    /**
+     * Converts a mate score from "mate in n moves from the root" to "mate in n moves from
+     * this position", so it stays correct when the position is reached at another ply
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) { return score + ply; }
+        if (score <= -MATE_SCORE + MAX_PLY) { return score - ply; }
+        return score;
+    }
+
+    /**
+     * Converts a mate score stored in the transposition table back to one counted from the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) { return score - ply; }
+        if (score <= -MATE_SCORE + MAX_PLY) { return score + ply; }
+        return score;
+    }
+
+    /**
+     * @return whether the position inside the search is a draw. A single repeat counts,
+     * since if repeating is good once it will be good again.
+     */
+    private boolean isDrawn() {
+        return board.getHalfmoveClock() >= 100 || board.hasInsufficientMaterial() || board.getRepetitionCount() >= 2;
+    }
+
+    /**
+     * Counts a visited node and checks whether the search has to stop
+     *
+     * @return whether the search has run out of time or nodes, or was stopped
+     */
+    private boolean countNode() {
+        ++nodes;
+
+        if (nodes >= nodeLimit || stopped || (nodes % CHECK_INTERVAL == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+
+        return aborted;
+    }
+
+    /**
+     * Makes a move the start of the best line from a ply, followed by the best line after it
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        for (int i = ply + 1; i < pvLength[ply + 1]; ++i) {
+            pvTable[ply][i] = pvTable[ply + 1][i];
+        }
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    /**
+     * Moves a move to the front of the buffer if it is there, keeping the others in order
+     */
+    private static void moveToFront(MoveBuffer moves, int move) {
+        for (int i = 0; i < moves.size(); ++i) {
+            if (moves.get(i) != move) { continue; }
+
+            for (int j = i; j > 0; --j) {
+                moves.set(j, moves.get(j - 1));
+            }
+            moves.set(0, move);
+            return;
+        }
+    }
+
+    /**
+     * @return the moves of a line as ChessMoves
+     */
+    private static ArrayList<ChessMove> toChessMoves(int[] line) {
+        ArrayList<ChessMove> moves = new ArrayList<>(line.length);
+
+        for (int move : line) {
+            moves.add(PackedMove.toChessMove(move));
+        }
+
+        return moves;
+    }
+}
@@ -0,0 +1,95 @@
+package chess.search;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search: the best move found, its score and how much work it took
+ */
+public class SearchResult {
+
+    private final ChessMove bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final List<ChessMove> principalVariation;
+
+    public SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos, List<ChessMove> principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = List.copyOf(principalVariation);
+    }
+
+    /**
+     * @return the best move found, or null if the team to move has no legal moves
+     */
+    public ChessMove getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return the score of the best move in centipawns for the team to move. Scores near
+     * {@link Search#MATE_SCORE} mean a forced checkmate was found.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return whether the score is a forced checkmate for either team
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE_SCORE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return the deepest depth that was searched completely, or 0 if not even depth 1 finished
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the number of positions visited, including quiescence search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return how long the search took, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of positions visited per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return the moves both teams are expected to play, starting with the best move
+     */
+    public List<ChessMove> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Outputs a one line summary of the search
+     *
+     * @return String of the depth, score, nodes, speed and principal variation
+     */
+    @Override
+    public String toString() {
+        return String.format("depth %d score %d nodes %,d (%,d nodes/s) pv %s",
+                depth, score, nodes, getNodesPerSecond(), principalVariation);
+    }
+}
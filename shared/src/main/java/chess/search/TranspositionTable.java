@@ -0,0 +1,209 @@
+package chess.search;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the results of searching positions, keyed by their Zobrist key, so a
+ * position reached again by a different order of moves doesn't have to be searched again
+ * <p>
+ * The table is one {@code long[]} sized to a power of two from a memory budget, with no
+ * objects per entry. Each entry is two longs: the entry's data, and the position's key
+ * XORed with that data. An entry only counts as a hit when XORing the two gives back the
+ * key being looked up, so if two threads write the same entry at once, the mixed-up entry
+ * is simply treated as a miss. That makes the table safe to share between threads without
+ * any locking.
+ * <p>
+ * Entries sit in buckets of two. When storing, an entry for the same position is replaced
+ * first, then an entry left over from an earlier search, then the one searched less deeply.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The stored score is exact
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The real score is at least the stored score (the search cut off above beta)
+     */
+    public static final int LOWER_BOUND = 2;
+
+    /**
+     * The real score is at most the stored score (no move reached alpha)
+     */
+    public static final int UPPER_BOUND = 3;
+
+    // Layout of an entry's data: bits 0-18 move, 19-36 score + 2^17, 37-44 depth,
+    // 45-46 bound, 47-54 age. The bound is never 0, so no stored entry has data 0.
+    private static final int SCORE_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 37;
+    private static final int BOUND_SHIFT = 45;
+    private static final int AGE_SHIFT = 47;
+    private static final int SCORE_OFFSET = 1 << 17;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int ENTRIES_PER_BUCKET = 2;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    /**
+     * Creates a table that uses at most the given amount of memory
+     *
+     * @param megabytes the memory budget in megabytes, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (8L * LONGS_PER_ENTRY * ENTRIES_PER_BUCKET));
+
+        // Java arrays are limited to about 2^31 elements
+        buckets = Math.min(buckets, 1L << 28);
+
+        table = new long[(int) (buckets * LONGS_PER_ENTRY * ENTRIES_PER_BUCKET)];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the Zobrist key of the position
+     * @return the entry's data, to be read with {@link #move}, {@link #score}, {@link #depth}
+     * and {@link #bound}, or 0 if the position isn't in the table
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+
+        for (int i = 0; i < ENTRIES_PER_BUCKET; ++i, index += LONGS_PER_ENTRY) {
+            long data = table[index + 1];
+            if (data != 0 && (table[index] ^ data) == key) { return data; }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a position
+     *
+     * @param key the Zobrist key of the position
+     * @param move the best move found as a packed move, or 0 for none
+     * @param score the score of the position
+     * @param depth how deep the position was searched
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = bucketIndex(key);
+        int currentAge = age;
+        int replace = bucket;
+        int replacePriority = Integer.MAX_VALUE;
+
+        for (int i = 0, index = bucket; i < ENTRIES_PER_BUCKET; ++i, index += LONGS_PER_ENTRY) {
+            long data = table[index + 1];
+
+            // Always replace the same position, but keep its best move if the new result has none
+            if ((table[index] ^ data) == key) {
+                if (move == 0) { move = move(data); }
+                replace = index;
+                break;
+            }
+
+            // Otherwise prefer an empty entry, then one from an old search, then the shallowest
+            int priority = data == 0 ? Integer.MIN_VALUE : depth(data) + (age(data) == currentAge ? 256 : 0);
+            if (priority < replacePriority) {
+                replace = index;
+                replacePriority = priority;
+            }
+        }
+
+        long data = (move & 0x7FFFFL) |
+                ((long) (score + SCORE_OFFSET) << SCORE_SHIFT) |
+                ((long) Math.min(depth, 255) << DEPTH_SHIFT) |
+                ((long) bound << BOUND_SHIFT) |
+                ((long) currentAge << AGE_SHIFT);
+
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        age = 0;
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int getCapacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Estimates how full the table is by sampling its first thousand entries
+     *
+     * @return the number of sampled entries, out of 1000, stored during the current search
+     */
+    public int getPermilleFull() {
+        int sampled = Math.min(1000, getCapacity());
+        int used = 0;
+
+        for (int i = 0; i < sampled; ++i) {
+            long data = table[i * LONGS_PER_ENTRY + 1];
+            if (data != 0 && age(data) == age) { ++used; }
+        }
+
+        return used * 1000 / sampled;
+    }
+
+    /**
+     * @return the packed move of an entry, or 0 if it has none
+     */
+    public static int move(long data) {
+        return (int) (data & 0x7FFFF);
+    }
+
+    /**
+     * @return the score of an entry
+     */
+    public static int score(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & 0x3FFFF) - SCORE_OFFSET;
+    }
+
+    /**
+     * @return the depth an entry was searched to
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    /**
+     * @return whether an entry's score is EXACT, a LOWER_BOUND or an UPPER_BOUND
+     */
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    /**
+     * @return the search an entry was stored in
+     */
+    private static int age(long data) {
+        return (int) ((data >>> AGE_SHIFT) & 0xFF);
+    }
+
+    /**
+     * @return the index in the table of the first long of a key's bucket
+     */
+    private int bucketIndex(long key) {
+        // Every bit of a Zobrist key is random, so any of them can pick the bucket
+        return ((int) (key >>> 32) & bucketMask) * LONGS_PER_ENTRY * ENTRIES_PER_BUCKET;
+    }
+}
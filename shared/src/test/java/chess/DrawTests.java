@@ -0,0 +1,71 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+
+        // Shuffle the knights out and back twice, repeating the start position
+        for (int i = 0; i < 2; ++i) {
+            Assertions.assertNull(game.getDrawReason(), "Game drawn too early");
+            game.makeMove(move(1, 7, 3, 6));
+            game.makeMove(move(8, 7, 6, 6));
+            game.makeMove(move(3, 6, 1, 7));
+            game.makeMove(move(6, 6, 8, 7));
+        }
+
+        Assertions.assertEquals(3, game.getBoard().getRepetitionCount());
+        Assertions.assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+
+        // Taking back a move also takes back the repetition
+        game.unmakeMove();
+        Assertions.assertNull(game.getDrawReason(), "Repetition not taken back with the move");
+    }
+
+    @Test
+    @DisplayName("Pawn Move Ends Repetition")
+    public void irreversibleMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+        game.makeMove(move(2, 5, 3, 5));
+
+        Assertions.assertEquals(1, game.getBoard().getRepetitionCount(), "Position before a pawn move was counted");
+        Assertions.assertEquals(0, game.getBoard().getHalfmoveClock(), "Pawn move did not reset the halfmove clock");
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        Assertions.assertNull(game.getDrawReason());
+
+        game.makeMove(move(1, 1, 2, 1));
+        Assertions.assertEquals(ChessGame.DrawReason.FIFTY_MOVE_RULE, game.getDrawReason());
+    }
+
+    @Test
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial() {
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1").isDraw(), "King against king");
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4KN2 w - - 0 1").isDraw(), "King and knight against king");
+        Assertions.assertTrue(ChessGame.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").isDraw(), "Bishops on the same color");
+
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1").isDraw(), "Bishops on both colors");
+        Assertions.assertFalse(ChessGame.fromFen("4kn2/8/8/8/8/8/8/4KN2 w - - 0 1").isDraw(), "Knight against knight");
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1").isDraw(), "King and pawn against king");
+        Assertions.assertFalse(new ChessGame().isDraw(), "Start position");
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
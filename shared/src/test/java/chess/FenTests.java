@@ -0,0 +1,66 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Start Position Matches New Game")
+    public void startPosition() {
+        ChessGame game = ChessGame.fromFen(START);
+
+        Assertions.assertEquals(new ChessGame(), game, "FEN start position differs from a new game");
+        Assertions.assertEquals(new ChessGame().getZobristKey(), game.getZobristKey(), "FEN start position has a different key");
+        Assertions.assertEquals(START, new ChessGame().toFen(), "New game written as wrong FEN");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.TestPosition.class)
+    @DisplayName("Positions Survive a Round Trip")
+    public void roundTrip(Perft.TestPosition position) {
+        Assertions.assertEquals(position.getFen(), position.createGame().toFen(), "FEN changed after reading and writing it");
+    }
+
+    @Test
+    @DisplayName("Moves Update Turn, Castling, En Passant and Counters")
+    public void stateAfterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        // Reading the FEN back gives the same position, key included
+        ChessGame copy = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(game, copy, "Game read from FEN differs");
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey(), "Game read from FEN has a different key");
+    }
+
+    @Test
+    @DisplayName("En Passant Square Allows the Capture")
+    public void enPassantSquare() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+
+        Assertions.assertTrue(game.validMoves(new ChessPosition(5, 5))
+                        .contains(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 4), null)),
+                "En passant capture from the FEN was not allowed");
+    }
+
+    @Test
+    @DisplayName("Invalid FEN Rejected")
+    public void invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+    }
+}
@@ -0,0 +1,120 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class MoveCacheTests {
+
+    @Test
+    @DisplayName("Repeated Lookups Hit")
+    public void repeatedLookupsHit() {
+        ChessGame game = new ChessGame();
+        MoveCache cache = game.getMoveCache();
+        ChessPosition knight = new ChessPosition(1, 2);
+
+        var first = game.validMoves(knight);
+        var second = game.validMoves(knight);
+        game.validMoves(new ChessPosition(2, 5));
+
+        Assertions.assertEquals(new HashSet<>(first), new HashSet<>(second), "Cached moves differ from generated moves");
+        Assertions.assertEquals(1, cache.getMisses(), "Position generated more than once");
+        Assertions.assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("Cached Moves Match Generator")
+    public void matchesGenerator() throws InvalidMoveException {
+        ChessGame cached = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        ChessGame uncached = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        uncached.setMoveCache(null);
+
+        // Ask for the moves of both teams, before and after a move that allows en passant
+        for (int i = 0; i < 2; ++i) {
+            for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+                for (ChessPosition position : cached.getBoard().findAllPieces(team)) {
+                    Assertions.assertEquals(new HashSet<>(uncached.validMoves(position)), new HashSet<>(cached.validMoves(position)),
+                            "Wrong moves from " + position);
+                }
+            }
+
+            ChessMove move = new ChessMove(new ChessPosition(2, 1), new ChessPosition(4, 1), null);
+            if (i == 0) {
+                cached.makeMove(move);
+                uncached.makeMove(move);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Least Recently Used Position Forgotten")
+    public void leastRecentlyUsedEvicted() throws InvalidMoveException {
+        MoveCache cache = new MoveCache(2);
+        ChessGame game = new ChessGame();
+        game.setMoveCache(cache);
+        ChessPosition pawn = new ChessPosition(2, 1);
+
+        game.validMoves(pawn);
+        game.makeMove(new ChessMove(pawn, new ChessPosition(3, 1), null));
+        game.validMoves(new ChessPosition(7, 1));
+
+        // The start position is used again, so a third position pushes out the one after a3
+        game.unmakeMove();
+        game.validMoves(pawn);
+        game.makeMove(new ChessMove(pawn, new ChessPosition(4, 1), null));
+        game.validMoves(new ChessPosition(7, 1));
+        Assertions.assertEquals(3, cache.getMisses());
+        Assertions.assertEquals(2, cache.size());
+
+        game.unmakeMove();
+        game.makeMove(new ChessMove(pawn, new ChessPosition(3, 1), null));
+        Assertions.assertEquals(3, cache.getMisses(), "Most recently used position was forgotten");
+
+        game.validMoves(new ChessPosition(7, 1));
+        Assertions.assertEquals(4, cache.getMisses(), "Least recently used position was kept");
+    }
+
+    @Test
+    @DisplayName("Positions Sharing a Key Kept Apart")
+    public void keyCollision() {
+        MoveCache cache = new MoveCache(MoveCache.DEFAULT_CAPACITY);
+        ChessBoard start = new ChessGame().getBoard();
+        ChessBoard kings = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getBoard();
+
+        // Look both positions up under one key, as if their Zobrist keys had collided
+        cache.teamMoves(start, ChessGame.TeamColor.WHITE, 1);
+        ChessMove[][] moves = cache.teamMoves(kings, ChessGame.TeamColor.WHITE, 1);
+
+        Assertions.assertEquals(2, cache.getMisses(), "Moves of another position with the same key used");
+        Assertions.assertNull(moves[new ChessPosition(1, 2).index()], "Moves of another position with the same key used");
+        Assertions.assertEquals(5, moves[new ChessPosition(1, 5).index()].length);
+
+        cache.teamMoves(kings, ChessGame.TeamColor.BLACK, 1);
+        Assertions.assertEquals(3, cache.getMisses(), "Moves of the other team used");
+        cache.teamMoves(kings, ChessGame.TeamColor.BLACK, 1);
+        Assertions.assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("Shared Between Games")
+    public void sharedBetweenGames() {
+        MoveCache cache = new MoveCache(MoveCache.DEFAULT_CAPACITY);
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        first.setMoveCache(cache);
+        second.setMoveCache(cache);
+
+        first.validMoves(new ChessPosition(1, 7));
+        second.validMoves(new ChessPosition(1, 7));
+
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(0.5, cache.getHitRate());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+}
@@ -0,0 +1,105 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristKeyTests {
+
+    @Test
+    @DisplayName("Key Restored After Unmaking Moves")
+    public void unmakeRestoresKey() {
+        ChessGame game = Perft.TestPosition.KIWIPETE.createGame();
+        long original = game.getZobristKey();
+        MoveBuffer moves = new MoveBuffer();
+
+        game.generateAllLegalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); ++i) {
+            game.getBoard().makeMove(PackedMove.toChessMove(moves.get(i)));
+            Assertions.assertNotEquals(original, game.getBoard().getZobristKey(),
+                    "Key did not change after " + PackedMove.toChessMove(moves.get(i)));
+            game.getBoard().unmakeMove();
+
+            Assertions.assertEquals(original, game.getZobristKey(),
+                    "Key not restored after unmaking " + PackedMove.toChessMove(moves.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Incremental Key Matches Rebuilt Board")
+    public void incrementalMatchesFresh() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(7, 2, 5, 2));
+        game.makeMove(move(1, 7, 3, 6));
+
+        // Build the same position piece by piece, so its key is computed from scratch
+        ChessBoard rebuilt = new ChessBoard();
+        for (int square = 0; square < 64; ++square) {
+            ChessPiece piece = game.getBoard().getPiece(square);
+            if (piece != null) { rebuilt.addPiece(ChessPosition.of(square), piece); }
+        }
+        rebuilt.setTeamTurn(game.getTeamTurn());
+
+        Assertions.assertEquals(rebuilt.getZobristKey(), game.getBoard().getZobristKey(),
+                "Key kept up to date during moves differs from key of the same position built fresh");
+    }
+
+    @Test
+    @DisplayName("Transpositions Share a Key")
+    public void transpositions() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+        first.makeMove(move(1, 7, 3, 6));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 2, 3, 3));
+
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey(),
+                "Same position reached by different move orders had different keys");
+    }
+
+    @Test
+    @DisplayName("Turn, Castling and En Passant Change the Key")
+    public void stateChangesKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long whiteToMove = game.getZobristKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(whiteToMove, game.getZobristKey(), "Turn did not change the key");
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        // Moving the kingside rooks out and back gives the same pieces but loses kingside castling
+        ChessGame rooks = new ChessGame();
+        rooks.getBoard().removePiece(new ChessPosition(1, 7));
+        rooks.getBoard().removePiece(new ChessPosition(8, 7));
+        long before = rooks.getZobristKey();
+        rooks.makeMove(move(1, 8, 1, 7));
+        rooks.makeMove(move(8, 8, 8, 7));
+        rooks.makeMove(move(1, 7, 1, 8));
+        rooks.makeMove(move(8, 7, 8, 8));
+        Assertions.assertNotEquals(before, rooks.getZobristKey(), "Losing castling rights did not change the key");
+        Assertions.assertEquals(ChessBoard.WHITE_QUEENSIDE | ChessBoard.BLACK_QUEENSIDE, rooks.getBoard().getCastlingRights(),
+                "Moved rooks should not allow castling");
+
+        // A double pawn push with an opposing pawn beside it changes the key by more than the pawn move
+        ChessGame enPassant = new ChessGame();
+        enPassant.makeMove(move(2, 5, 4, 5));
+        enPassant.makeMove(move(7, 1, 6, 1));
+        enPassant.makeMove(move(4, 5, 5, 5));
+        enPassant.makeMove(move(7, 4, 5, 4));
+        ChessBoard samePieces = new ChessBoard();
+        samePieces.setBoard(enPassant.getBoard());
+        samePieces.resetEnPassant();
+        Assertions.assertNotEquals(samePieces.getZobristKey(), enPassant.getBoard().getZobristKey(),
+                "En passant being available did not change the key");
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
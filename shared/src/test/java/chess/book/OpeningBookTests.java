@@ -0,0 +1,149 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OpeningBookTests {
+
+    // e4 wins twice and d4 draws once, so e4 has weight 4 and d4 weight 1
+    private static final String GAMES = """
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0
+            1. e4 c5 2. Nf3 d6 1-0
+            1. d4 d5 2. c4 1/2-1/2
+            1. e4 e6 2. d4 d5 0-1
+            """;
+
+    @Test
+    @DisplayName("Book Built From PGN Finds Its Moves")
+    public void buildAndProbe() throws IOException, InvalidMoveException {
+        Path path = buildBook();
+
+        try {
+            OpeningBook book = OpeningBook.open(path);
+            ChessGame game = new ChessGame();
+
+            int first = book.find(PolyglotKey.of(game));
+            Assertions.assertNotEquals(-1, first, "Start position not in the book");
+            Assertions.assertEquals(4, book.getWeight(first), "Weights not counted from the results");
+            Assertions.assertEquals(1, book.getWeight(first + 1), "Weights not counted from the results");
+            Assertions.assertNotEquals(PolyglotKey.of(game), book.getKey(first + 2), "Losing move kept in the book");
+            Assertions.assertEquals(move(2, 5, 4, 5), book.bestMove(game));
+            Assertions.assertEquals(move(2, 5, 4, 5), book.pickMove(game, 0.0));
+            Assertions.assertEquals(move(2, 4, 4, 4), book.pickMove(game, 0.99));
+
+            // After 1. e4 only e6 won for Black, and after 1. e4 e6 White's only book move lost
+            game.makeMove(move(2, 5, 4, 5));
+            Assertions.assertEquals(move(7, 5, 6, 5), book.bestMove(game));
+            game.makeMove(move(7, 5, 6, 5));
+            Assertions.assertNull(book.bestMove(game), "Move that only lost was kept");
+
+            Assertions.assertEquals(-1, book.find(PolyglotKey.of(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1"))));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    @DisplayName("Polyglot Keys Match the Published Ones")
+    public void polyglotKeys() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0x463B96181691FC9CL, PolyglotKey.of(game), "Start position key wrong");
+        Assertions.assertEquals(PolyglotKey.START, PolyglotKey.of(game));
+
+        // The keys given with Polyglot's book format, after each move of 1. e4 d5 2. e5 f5 3. Ke2 Kf7
+        ChessMove[] moves = {move(2, 5, 4, 5), move(7, 4, 5, 4), move(4, 5, 5, 5), move(7, 6, 5, 6),
+                move(1, 5, 2, 5), move(8, 5, 7, 6)};
+        long[] keys = {0x823C9B50FD114196L, 0x0756B94461C50FB0L, 0x662FAFB965DB29D4L, 0x22A48B5A8E47FF78L,
+                0x652A607CA3F242C1L, 0x00FDD303C946BDD9L};
+        for (int i = 0; i < moves.length; ++i) {
+            game.makeMove(moves[i]);
+            Assertions.assertEquals(keys[i], PolyglotKey.of(game), "Key wrong after move " + (i + 1));
+        }
+
+        // 1. a4 b5 2. h4 b4 3. c4 can be taken en passant, so the key counts it
+        game = new ChessGame();
+        for (ChessMove move : new ChessMove[]{move(2, 1, 4, 1), move(7, 2, 5, 2), move(2, 8, 4, 8),
+                move(5, 2, 4, 2), move(2, 3, 4, 3)}) {
+            game.makeMove(move);
+        }
+        Assertions.assertEquals(0x3C8123EA7B067637L, PolyglotKey.of(game), "En passant not counted");
+        game.makeMove(move(4, 2, 3, 3));
+        game.makeMove(move(1, 1, 3, 1));
+        Assertions.assertEquals(0x5C3F9B829B279560L, PolyglotKey.of(game), "Castling rights not counted");
+
+        // Nothing can take the e-pawn, so the en passant file is left out
+        Assertions.assertEquals(0x823C9B50FD114196L,
+                PolyglotKey.of(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+    }
+
+    @Test
+    @DisplayName("Entry Written by Polyglot Found")
+    public void polyglotEntry() throws IOException {
+        // The start position's 1. e4 entry as Polyglot writes it: e4 is square 28, e2 square 12
+        ByteBuffer entry = ByteBuffer.allocate(OpeningBook.ENTRY_SIZE);
+        entry.putLong(0x463B96181691FC9CL).putShort((short) (28 | (12 << 6))).putShort((short) 1).putInt(0);
+
+        Path path = Files.createTempFile("polyglot", ".bin");
+        try {
+            Files.write(path, entry.array());
+            Assertions.assertEquals(move(2, 5, 4, 5), OpeningBook.open(path).bestMove(new ChessGame()));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    @DisplayName("Castling Stored as King Takes Rook")
+    public void castlingEncoding() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        ChessMove castle = move(1, 5, 1, 7);
+
+        int encoded = OpeningBook.encodeMove(game.getBoard(), castle);
+        Assertions.assertEquals(7, encoded & 0x3F, "Kingside castling not stored as the king taking the h1 rook");
+        Assertions.assertEquals(castle, OpeningBook.decodeMove(game.getBoard(), encoded));
+    }
+
+    @Test
+    @DisplayName("Entries Sorted by Unsigned Key")
+    public void sorted() throws IOException {
+        Path path = buildBook();
+
+        try {
+            OpeningBook book = OpeningBook.open(path);
+            for (int i = 1; i < book.size(); ++i) {
+                Assertions.assertTrue(Long.compareUnsigned(book.getKey(i - 1), book.getKey(i)) <= 0, "Entries out of order");
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Path buildBook() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        PgnReader reader = new PgnReader(new StringReader(GAMES));
+        for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+            builder.addGame(game);
+        }
+
+        Path path = Files.createTempFile("book", ".bin");
+        builder.write(path);
+        return path;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
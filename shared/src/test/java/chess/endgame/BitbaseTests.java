@@ -0,0 +1,142 @@
+package chess.endgame;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.search.Search;
+import chess.search.SearchResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BitbaseTests {
+
+    // Generating takes a few seconds, so every test shares one set
+    private static Bitbases bitbases;
+
+    @Test
+    @DisplayName("Queen and Rook Endings Won")
+    public void majorPieces() {
+        Assertions.assertEquals(Bitbase.Result.WIN, probe("8/8/8/4k3/8/8/8/3QK3 w - - 0 1"));
+        Assertions.assertEquals(Bitbase.Result.LOSS, probe("8/8/8/4k3/8/8/8/R3K3 b - - 0 1"));
+        Assertions.assertEquals(Bitbase.Result.WIN, probe("r3k3/8/8/8/4K3/8/8/8 b - - 0 1"), "Black as the stronger side");
+    }
+
+    @Test
+    @DisplayName("Stalemate and Captured Piece Drawn")
+    public void draws() {
+        Assertions.assertEquals(Bitbase.Result.DRAW, probe("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"), "Stalemate");
+        Assertions.assertEquals(Bitbase.Result.DRAW, probe("8/8/8/8/8/8/kQ6/7K b - - 0 1"), "Undefended queen can be taken");
+        Assertions.assertEquals(Bitbase.Result.LOSS, probe("8/8/8/8/8/8/kQ6/2K5 b - - 0 1"), "Defended queen can't be taken");
+    }
+
+    @Test
+    @DisplayName("Pawn Endings Follow the Opposition")
+    public void pawnEndings() {
+        Assertions.assertEquals(Bitbase.Result.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"), "King on the sixth in front of the pawn");
+        Assertions.assertEquals(Bitbase.Result.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"), "King on the sixth in front of the pawn");
+        Assertions.assertEquals(Bitbase.Result.DRAW, probe("8/8/8/4k3/8/4K3/4P3/8 w - - 0 1"), "Defender has the opposition");
+        Assertions.assertEquals(Bitbase.Result.DRAW, probe("k7/8/8/8/8/8/P7/K7 w - - 0 1"), "Rook pawn with the king in the corner");
+        Assertions.assertEquals(Bitbase.Result.WIN, probe("8/8/8/8/8/4k3/4p3/4K3 b - - 0 1"), "Black pawn");
+    }
+
+    @Test
+    @DisplayName("Stronger Side to Move Always Wins With a Queen or Rook")
+    public void alwaysWins() {
+        for (Endgame endgame : new Endgame[]{Endgame.KQK, Endgame.KRK}) {
+            Bitbase bitbase = bitbases().get(endgame);
+
+            for (int strongKing = 0; strongKing < 64; ++strongKing) {
+                for (int weakKing = 0; weakKing < 64; ++weakKing) {
+                    for (int piece = 0; piece < 64; ++piece) {
+                        boolean legal = strongKing != weakKing && piece != strongKing && piece != weakKing &&
+                                (Math.abs(strongKing / 8 - weakKing / 8) > 1 || Math.abs(strongKing % 8 - weakKing % 8) > 1);
+
+                        // Positions where the weaker king is already in check can't happen with White to move
+                        if (legal && !bitbase.isWin(Bitbase.index(false, strongKing, weakKing, piece))) {
+                            Assertions.assertTrue(isWeakKingInCheck(endgame, strongKing, weakKing, piece),
+                                    endgame + " not won at " + strongKing + " " + weakKing + " " + piece);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Files Round Trip Through Memory Mapping")
+    public void fileRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("bitbases");
+
+        try {
+            for (Endgame endgame : Endgame.values()) {
+                BitbaseGenerator.write(bitbases().get(endgame), directory.resolve(endgame.getFileName()));
+                Assertions.assertEquals(Bitbase.BYTES, Files.size(directory.resolve(endgame.getFileName())));
+            }
+
+            Bitbases loaded = Bitbases.load(directory);
+            for (Endgame endgame : Endgame.values()) {
+                Assertions.assertEquals(bitbases().get(endgame).countWins(), loaded.get(endgame).countWins());
+            }
+            Assertions.assertEquals(Bitbase.Result.WIN, loaded.probe(ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1").getBoard()));
+        } finally {
+            for (Endgame endgame : Endgame.values()) {
+                Files.deleteIfExists(directory.resolve(endgame.getFileName()));
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Search Scores Trades Into a Won Endgame")
+    public void search() {
+        // Either capture of the queen leaves a won KQK
+        Search search = new Search(ChessGame.fromFen("4k3/8/8/8/8/8/3q4/3QK3 w - - 0 1"));
+        search.setBitbases(bitbases());
+        SearchResult result = search.search(3, 0, 0);
+
+        Assertions.assertEquals(Search.BITBASE_WIN_SCORE - 1, result.getScore());
+        Assertions.assertEquals(new ChessPosition(2, 4), result.getBestMove().getEndPosition());
+
+        // Already in the endgame, the search still has to find the way to mate itself
+        search = new Search(ChessGame.fromFen("7k/8/5K2/8/8/8/8/6Q1 w - - 0 1"));
+        search.setBitbases(bitbases());
+        Assertions.assertTrue(search.search(3, 0, 0).isMate(), "Mate not found inside the endgame");
+    }
+
+    @Test
+    @DisplayName("Other Material Not Covered")
+    public void notCovered() {
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/8/3NK3 w - - 0 1"));
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/4P3/3QK3 w - - 0 1"));
+        Assertions.assertNull(probe("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+    private static boolean isWeakKingInCheck(Endgame endgame, int strongKing, int weakKing, int piece) {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(strongKing), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(weakKing), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(piece), ChessPiece.of(ChessGame.TeamColor.WHITE, endgame.getPiece()));
+        return board.squareIsAttacked(weakKing, ChessGame.TeamColor.WHITE);
+    }
+
+    private static Bitbase.Result probe(String fen) {
+        return bitbases().probe(ChessGame.fromFen(fen).getBoard());
+    }
+
+    private static synchronized Bitbases bitbases() {
+        if (bitbases == null) {
+            bitbases = new Bitbases();
+            for (Endgame endgame : Endgame.values()) {
+                bitbases.add(BitbaseGenerator.generate(endgame, bitbases));
+            }
+        }
+
+        return bitbases;
+    }
+}
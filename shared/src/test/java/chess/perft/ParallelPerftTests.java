@@ -0,0 +1,57 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelPerftTests {
+
+    @ParameterizedTest
+    @EnumSource(Perft.TestPosition.class)
+    @DisplayName("Parallel Counts Match Published Values")
+    public void publishedCounts(Perft.TestPosition position) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int depth = 1; depth <= 4 && depth <= position.maxKnownDepth(); ++depth) {
+                Assertions.assertEquals(position.expectedCount(depth), new ParallelPerft(position.createGame(), pool).count(depth),
+                        "Wrong number of positions for " + position + " at depth " + depth);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Adds Up and Leaves Game Unchanged")
+    public void divide() {
+        ChessGame game = Perft.TestPosition.KIWIPETE.createGame();
+        String before = game.toFen();
+
+        long total = new ParallelPerft(game).divide(3).values().stream().mapToLong(Long::longValue).sum();
+
+        Assertions.assertEquals(Perft.TestPosition.KIWIPETE.expectedCount(3), total);
+        Assertions.assertEquals(before, game.toFen(), "Game was changed after counting positions");
+    }
+
+    @Test
+    @DisplayName("Batch of Positions Validated Together")
+    public void validate() {
+        List<ParallelPerft.Check> checks = ParallelPerft.Check.parseEpd(
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1 ;D1 14 ;D2 191 ;D3 2812 ;D4 43238", 3);
+        checks = new ArrayList<>(checks);
+        checks.add(new ParallelPerft.Check(Perft.TestPosition.START.getFen(), 3, 8903));
+
+        long[] counts = ParallelPerft.validate(checks, ForkJoinPool.commonPool());
+
+        Assertions.assertArrayEquals(new long[]{14, 191, 2812, 8902}, counts);
+        Assertions.assertNotEquals(checks.get(3).getExpected(), counts[3], "Wrong expected count not caught");
+    }
+}
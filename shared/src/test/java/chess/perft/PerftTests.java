@@ -0,0 +1,43 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class PerftTests {
+
+    @ParameterizedTest
+    @EnumSource(Perft.TestPosition.class)
+    @DisplayName("Perft Counts Match Published Values")
+    public void publishedCounts(Perft.TestPosition position) {
+        for (int depth = 1; depth <= 3; ++depth) {
+            Perft perft = new Perft(position.createGame());
+            Assertions.assertEquals(position.expectedCount(depth), perft.count(depth),
+                    "Wrong number of positions for " + position + " at depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Trial Moves Match Legal Move Generator")
+    public void trialMovesMatch() {
+        ChessGame game = Perft.TestPosition.KIWIPETE.createGame();
+        game.setMoveValidation(ChessGame.MoveValidation.TRIAL_MOVES);
+
+        Assertions.assertEquals(Perft.TestPosition.KIWIPETE.expectedCount(3), new Perft(game).count(3),
+                "Trying each move on the board found a different number of positions");
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void gameRestored() {
+        ChessGame game = Perft.TestPosition.POSITION_4.createGame();
+        ChessGame original = Perft.TestPosition.POSITION_4.createGame();
+
+        new Perft(game).count(3);
+
+        Assertions.assertEquals(original, game, "Game was changed after counting positions");
+    }
+}
@@ -0,0 +1,115 @@
+package chess.pgn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PgnImporterTests {
+
+    private static final String LEGAL = """
+            [Event "Legal"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0
+
+            """;
+
+    private static final String ILLEGAL = """
+            [Event "Illegal"]
+
+            1. e4 e5 2. Ke3 *
+
+            """;
+
+    private static final String BROKEN_TAG = """
+            [Event]
+
+            1. d4 *
+
+            """;
+
+    @Test
+    @DisplayName("Legal Games Stored in Batches")
+    public void importsLegalGames() throws IOException {
+        String pgn = (LEGAL + ILLEGAL).repeat(10) + BROKEN_TAG + LEGAL;
+        ArrayList<List<PgnGame>> batches = new ArrayList<>();
+
+        PgnImporter importer = new PgnImporter(games -> batches.add(List.copyOf(games)), 2, 4);
+        PgnImporter.Report report = importer.importFrom(channel(pgn));
+
+        Assertions.assertEquals(11, report.getGamesImported());
+        Assertions.assertEquals(11, report.getGamesRejected(), "Illegal game or broken tag not rejected");
+        Assertions.assertEquals(22, report.getGamesRead());
+        Assertions.assertTrue(report.getPeakHeapBytes() > 0);
+
+        int stored = 0;
+        for (List<PgnGame> batch : batches) {
+            Assertions.assertTrue(batch.size() <= 4, "Batch larger than asked for");
+            for (PgnGame game : batch) {
+                Assertions.assertEquals("Legal", game.getTag("Event"));
+            }
+            stored += batch.size();
+        }
+        Assertions.assertEquals(11, stored);
+    }
+
+    @Test
+    @DisplayName("Legal Games Written to a File")
+    public void writesFile() throws IOException {
+        Path input = Files.createTempFile("games", ".pgn");
+        Path output = Files.createTempFile("legal", ".pgn");
+
+        try {
+            Files.writeString(input, LEGAL + ILLEGAL + LEGAL);
+            try (PgnFileSink sink = new PgnFileSink(output)) {
+                new PgnImporter(sink, 1, PgnImporter.DEFAULT_BATCH_SIZE).importFile(input);
+            }
+
+            PgnReader reader = new PgnReader(new StringReader(Files.readString(output)));
+            Assertions.assertEquals(List.of("e4", "e5", "Nf3", "Nc6", "Bb5", "a6"), reader.next().getMoves());
+            Assertions.assertEquals("1-0", reader.next().getResult());
+            Assertions.assertNull(reader.next(), "Illegal game written");
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    @DisplayName("Sink Failure Stops the Import")
+    public void sinkFailure() {
+        PgnImporter importer = new PgnImporter(games -> { throw new IOException("Disk full"); }, 1, 1);
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> importer.importFrom(channel(LEGAL.repeat(5))));
+        Assertions.assertEquals("Disk full", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Characters Split Across Buffers Decoded")
+    public void decodesAcrossBuffers() throws IOException {
+        String text = "[White \"M\u00FCller \u2655 \u0160\u0107epanovi\u0107\"]";
+
+        // Buffers smaller than the text leave characters split between two reads
+        ChannelReader reader = new ChannelReader(channel(text), StandardCharsets.UTF_8, 4);
+        StringBuilder decoded = new StringBuilder();
+        for (int c = reader.read(); c != -1; c = reader.read()) {
+            decoded.append((char) c);
+        }
+
+        Assertions.assertEquals(text, decoded.toString());
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
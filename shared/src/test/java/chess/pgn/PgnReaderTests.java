@@ -0,0 +1,80 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+public class PgnReaderTests {
+
+    private static final String GAMES = """
+            [Event "Casual Game"]
+            [White "Anderssen, \\"The Immortal\\""]
+            [Black "Kieseritzky"]
+
+            1. e4 e5 2. f4 {King's Gambit} exf4 (2... d5 3. exd5 (3. Nf3)) 3. Bc4 $1 Qh4+
+            4. Kf1 1-0
+
+            [Event "Unfinished"]
+            1.d4 d5 2.c4 ; a comment to the end of the line
+            *
+            """;
+
+    @Test
+    @DisplayName("Games Read With Tags, Moves and Results")
+    public void readsGames() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(GAMES));
+
+        PgnGame first = reader.next();
+        Assertions.assertEquals("Casual Game", first.getTag("Event"));
+        Assertions.assertEquals("Anderssen, \"The Immortal\"", first.getTag("White"));
+        Assertions.assertEquals(List.of("e4", "e5", "f4", "exf4", "Bc4", "Qh4+", "Kf1"), first.getMoves(),
+                "Comments, variations or annotations kept as moves");
+        Assertions.assertEquals("1-0", first.getResult());
+
+        PgnGame second = reader.next();
+        Assertions.assertEquals(List.of("d4", "d5", "c4"), second.getMoves());
+        Assertions.assertEquals(PgnGame.UNKNOWN_RESULT, second.getResult());
+
+        Assertions.assertNull(reader.next(), "Read a game past the end");
+    }
+
+    @Test
+    @DisplayName("Game With a Broken Tag Skipped")
+    public void skipsBrokenTag() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader("[Event] ]\n\n1. d4 d5 *\n\n[Event \"Next\"]\n\n1. e4 *\n"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+        Assertions.assertEquals("Next", reader.next().getTag("Event"), "Reading did not carry on with the next game");
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("SAN Moves Matched to Legal Moves")
+    public void parsesSan() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/2N3N1/1P4P1/R3K2R w KQkq - 0 1");
+
+        Assertions.assertEquals(move(3, 3, 4, 5, null), San.parse(game, "Nce4"));
+        Assertions.assertEquals(move(3, 7, 5, 6, null), San.parse(game, "Nf5+"));
+        Assertions.assertEquals(move(1, 5, 1, 7, null), San.parse(game, "O-O"));
+        Assertions.assertEquals(move(1, 5, 1, 3, null), San.parse(game, "0-0-0"));
+        Assertions.assertEquals(move(1, 1, 8, 1, null), San.parse(game, "Rxa8+"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Ne4"), "Ambiguous move accepted");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Qd1"), "Move with no piece accepted");
+
+        ChessGame promotion = ChessGame.fromFen("3r3k/2P5/8/8/8/8/8/K7 w - - 0 1");
+        Assertions.assertEquals(move(7, 3, 8, 4, ChessPiece.PieceType.QUEEN), San.parse(promotion, "cxd8=Q#"));
+        Assertions.assertEquals(move(7, 3, 8, 3, ChessPiece.PieceType.KNIGHT), San.parse(promotion, "c8N"));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), promotion);
+    }
+}
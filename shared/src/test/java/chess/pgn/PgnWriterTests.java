@@ -0,0 +1,72 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+public class PgnWriterTests {
+
+    @Test
+    @DisplayName("Game Written and Read Back")
+    public void roundTrip() throws InvalidMoveException, IOException {
+        ChessGame game = new ChessGame();
+        String[] moves = {"e4", "e5", "Nf3", "Nc6", "Bc4", "Nf6", "O-O", "Bc5", "d3", "d6", "Nc3", "O-O", "Bg5", "h6", "Bxf6", "Qxf6"};
+        for (String san : moves) {
+            game.makeMove(San.parse(game, san));
+        }
+        String fen = game.toFen();
+
+        PgnGame recorded = PgnGame.fromGame(game, Map.of("White", "Morphy, Paul", "Black", "Anderssen \"Adolf\""));
+        Assertions.assertEquals(fen, game.toFen(), "Recording the game changed it");
+        Assertions.assertEquals(List.of(moves), recorded.getMoves());
+        Assertions.assertEquals(List.of("Event", "Site", "Date", "Round", "White", "Black", "Result"),
+                List.copyOf(recorded.getTags().keySet()), "Seven tag roster missing or out of order");
+
+        String pgn = PgnWriter.format(recorded);
+        Assertions.assertTrue(pgn.contains("1. e4 e5 2. Nf3 Nc6"), pgn);
+        Assertions.assertTrue(pgn.endsWith("Qxf6 *\n\n"), pgn);
+        for (String line : pgn.split("\n")) {
+            Assertions.assertTrue(line.length() <= 80, "Line too long: " + line);
+        }
+
+        PgnGame read = new PgnReader(new StringReader(pgn)).next();
+        Assertions.assertEquals("Anderssen \"Adolf\"", read.getTag("Black"));
+        Assertions.assertEquals(fen, read.replay().toFen(), "Replayed game ended in another position");
+    }
+
+    @Test
+    @DisplayName("Game From a Set-Up Position")
+    public void setUpPosition() throws InvalidMoveException, IOException {
+        String start = "6k1/1p3ppp/8/8/8/8/8/R5K1 b - - 3 40";
+        ChessGame game = ChessGame.fromFen(start);
+        game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(6, 2), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null));
+
+        PgnGame recorded = PgnGame.fromGame(game, Map.of());
+        Assertions.assertEquals(start, recorded.getTag("FEN"));
+        Assertions.assertEquals("1", recorded.getTag("SetUp"));
+        Assertions.assertEquals("1-0", recorded.getResult(), "Checkmate not recorded as the result");
+
+        String pgn = PgnWriter.format(recorded);
+        Assertions.assertTrue(pgn.contains("\n40... b6 41. Ra8# 1-0\n"), pgn);
+
+        PgnGame read = new PgnReader(new StringReader(pgn)).next();
+        Assertions.assertEquals(game.toFen(), read.replay().toFen());
+    }
+
+    @Test
+    @DisplayName("Illegal Move Rejected on Replay")
+    public void illegalMove() {
+        PgnGame game = new PgnGame(Map.of(), List.of("e4", "e5", "Ke3"), PgnGame.UNKNOWN_RESULT);
+        Assertions.assertThrows(IllegalArgumentException.class, game::replay);
+    }
+}
@@ -0,0 +1,88 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SanTests {
+
+    @Test
+    @DisplayName("Piece Moves and Captures Written")
+    public void writesMoves() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals("Nf3", San.write(game, move(1, 7, 3, 6, null)));
+        Assertions.assertEquals("e4", San.write(game, move(2, 5, 4, 5, null)));
+
+        game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        Assertions.assertEquals("exd6", San.write(game, move(5, 5, 6, 4, null)), "En passant not written as a capture");
+
+        game = ChessGame.fromFen("4k3/8/8/3p4/8/8/8/3RK3 w - - 0 1");
+        Assertions.assertEquals("Rxd5", San.write(game, move(1, 4, 5, 4, null)));
+    }
+
+    @Test
+    @DisplayName("Start Square Given Only When Needed")
+    public void disambiguates() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1");
+        Assertions.assertEquals("Nbd2", San.write(game, move(1, 2, 2, 4, null)), "Knights on different files");
+
+        game = ChessGame.fromFen("4k3/8/8/R7/8/8/8/R3K3 w - - 0 1");
+        Assertions.assertEquals("R1a3", San.write(game, move(1, 1, 3, 1, null)), "Rooks on the same file");
+
+        game = ChessGame.fromFen("4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1");
+        Assertions.assertEquals("Qa1b2", San.write(game, move(1, 1, 2, 2, null)), "Queens on the same file and rank");
+
+        game = ChessGame.fromFen("4k3/8/8/8/1b6/2N5/8/4K1N1 w - - 0 1");
+        Assertions.assertEquals("Ne2", San.write(game, move(1, 7, 2, 5, null)), "Pinned knight counted");
+    }
+
+    @Test
+    @DisplayName("Castling, Promotion, Check and Mate Written")
+    public void writesSpecialMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals("O-O", San.write(game, move(1, 5, 1, 7, null)));
+        Assertions.assertEquals("O-O-O", San.write(game, move(1, 5, 1, 3, null)));
+
+        game = ChessGame.fromFen("r3k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals("bxa8=Q+", San.write(game, move(7, 2, 8, 1, ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("b8=N", San.write(game, move(7, 2, 8, 2, ChessPiece.PieceType.KNIGHT)));
+
+        game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5, null));
+        game.makeMove(move(7, 6, 5, 6, null));
+        Assertions.assertEquals("Qh5+", San.write(game, move(1, 4, 5, 8, null)));
+
+        game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6, null));
+        game.makeMove(move(7, 5, 5, 5, null));
+        game.makeMove(move(2, 7, 4, 7, null));
+        String fen = game.toFen();
+        Assertions.assertEquals("Qh4#", San.write(game, move(8, 4, 4, 8, null)));
+        Assertions.assertEquals(fen, game.toFen(), "Writing a move changed the game");
+    }
+
+    @Test
+    @DisplayName("Every Legal Move Read Back From SAN")
+    public void roundTrip() {
+        for (Perft.TestPosition position : Perft.TestPosition.values()) {
+            ChessGame game = position.createGame();
+
+            for (ChessPosition piece : game.getBoard().findAllPieces(game.getTeamTurn())) {
+                for (ChessMove move : game.validMoves(piece)) {
+                    String san = San.write(game, move);
+                    Assertions.assertEquals(move, San.parse(game, san), position + ": " + san + " read as another move");
+                }
+            }
+        }
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), promotion);
+    }
+}
@@ -0,0 +1,62 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.LegalMoveGenerator;
+import chess.MoveBuffer;
+import chess.PackedMove;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class EvaluatorTests {
+
+    @Test
+    @DisplayName("Start Position Is Even")
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+
+        Assertions.assertEquals(0, Evaluator.evaluate(game.getBoard()));
+        Assertions.assertEquals(24, game.getBoard().getGamePhase());
+    }
+
+    @Test
+    @DisplayName("Mirrored Positions Score the Same for the Side to Move")
+    public void mirrored() {
+        ChessGame white = ChessGame.fromFen("4k3/8/8/8/3N4/8/PP6/4K3 w - - 0 1");
+        ChessGame black = ChessGame.fromFen("4k3/pp6/8/3n4/8/8/8/4K3 b - - 0 1");
+
+        Assertions.assertTrue(Evaluator.evaluate(white.getBoard()) > 0, "Extra material not scored");
+        Assertions.assertEquals(Evaluator.evaluate(white.getBoard()), Evaluator.evaluate(black.getBoard()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.TestPosition.class)
+    @DisplayName("Kept Score Matches Recomputing Through Make and Unmake")
+    public void incrementalMatchesFromScratch(Perft.TestPosition position) {
+        ChessBoard board = position.createGame().getBoard();
+        checkTree(board, 3, new MoveBuffer[3]);
+    }
+
+    private static void checkTree(ChessBoard board, int depth, MoveBuffer[] buffers) {
+        Assertions.assertEquals(Evaluator.evaluateFromScratch(board), Evaluator.evaluate(board), "Kept score drifted");
+        if (depth == 0) { return; }
+
+        if (buffers[depth - 1] == null) { buffers[depth - 1] = new MoveBuffer(); }
+        MoveBuffer buffer = buffers[depth - 1];
+        buffer.clear();
+        int count = new LegalMoveGenerator(board, board.getTeamTurn()).generate(buffer);
+        int before = Evaluator.evaluate(board);
+
+        for (int i = 0; i < count; ++i) {
+            board.makeMove(PackedMove.toChessMove(buffer.get(i)));
+            checkTree(board, depth - 1, buffers);
+            board.unmakeMove();
+        }
+
+        Assertions.assertEquals(before, Evaluator.evaluate(board), "Score not restored by unmake");
+    }
+}
@@ -0,0 +1,65 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.LegalMoveGenerator;
+import chess.MoveBuffer;
+import chess.PackedMove;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoveOrdererTests {
+
+    @Test
+    @DisplayName("Captures Ordered by MVV-LVA")
+    public void mvvLva() {
+        // The pawn and the queen can both take the rook, and the queen can take a pawn
+        ChessBoard board = ChessGame.fromFen("4k3/8/2r5/1P6/8/4p3/8/2Q1K3 w - - 0 1").getBoard();
+        MoveBuffer moves = generate(board);
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.score(board, moves, 0, 0);
+
+        Assertions.assertEquals(square(5, 2), PackedMove.from(orderer.next(moves, 0, 0)), "Pawn takes rook not first");
+        Assertions.assertEquals(square(1, 3), PackedMove.from(orderer.next(moves, 0, 1)), "Queen takes rook not second");
+        Assertions.assertEquals(square(3, 5), PackedMove.to(orderer.next(moves, 0, 2)), "Queen takes pawn not third");
+    }
+
+    @Test
+    @DisplayName("Table Move First, Then Killers")
+    public void tableMoveAndKillers() {
+        ChessBoard board = new ChessGame().getBoard();
+        MoveBuffer moves = generate(board);
+        int tableMove = moves.get(moves.size() - 1);
+        int killer = moves.get(moves.size() - 2);
+
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.recordCutoff(board, killer, 3, 4);
+        orderer.score(board, moves, 3, tableMove);
+
+        Assertions.assertEquals(tableMove, orderer.next(moves, 3, 0));
+        Assertions.assertEquals(killer, orderer.next(moves, 3, 1));
+    }
+
+    @Test
+    @DisplayName("Ordering Searches Fewer Nodes")
+    public void fewerNodes() {
+        Search generated = new Search(Perft.TestPosition.KIWIPETE.createGame());
+        generated.setMoveOrdering(Search.MoveOrdering.GENERATED);
+        Search heuristic = new Search(Perft.TestPosition.KIWIPETE.createGame());
+
+        Assertions.assertTrue(heuristic.search(4, 0, 0).getNodes() < generated.search(4, 0, 0).getNodes(),
+                "Ordering moves did not save any nodes");
+    }
+
+    private static MoveBuffer generate(ChessBoard board) {
+        MoveBuffer moves = new MoveBuffer();
+        new LegalMoveGenerator(board, board.getTeamTurn()).generate(moves);
+        return moves;
+    }
+
+    private static int square(int row, int col) {
+        return (row - 1) * 8 + col - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.perft.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Finds Mate in One With Several Threads")
+    public void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new ParallelSearch(game, 4).search(4, 0, 0);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.getBestMove());
+        Assertions.assertTrue(result.isMate(), "Mate not reported");
+    }
+
+    @Test
+    @DisplayName("Reaches the Requested Depth Without Changing the Game")
+    public void reachesDepth() {
+        ChessGame game = Perft.TestPosition.KIWIPETE.createGame();
+        String before = game.toFen();
+        SearchResult result = new ParallelSearch(game, 3).search(4, 0, 0);
+
+        Assertions.assertEquals(4, result.getDepth());
+        Assertions.assertNotNull(result.getBestMove());
+        Assertions.assertTrue(result.getNodes() > 0);
+        Assertions.assertEquals(before, game.toFen(), "Search changed the game");
+    }
+
+    @Test
+    @DisplayName("Staggered Helpers Search a Depth Ahead")
+    public void staggered() {
+        int mainDepth = Search.nextDepth(1, ParallelSearch.firstDepth(0));
+        int helperDepth = Search.nextDepth(1, ParallelSearch.firstDepth(1));
+        Assertions.assertEquals(2, mainDepth);
+        Assertions.assertTrue(helperDepth > mainDepth, "Helper not staggered after depth 1");
+        Assertions.assertEquals(helperDepth, ParallelSearch.firstDepth(3), "Odd helpers not staggered alike");
+        Assertions.assertEquals(mainDepth, ParallelSearch.firstDepth(2), "Even helpers staggered");
+
+        // The helper stays ahead, iteration by iteration
+        for (int i = 0; i < 5; ++i) {
+            mainDepth = Search.nextDepth(mainDepth, ParallelSearch.firstDepth(0));
+            helperDepth = Search.nextDepth(helperDepth, ParallelSearch.firstDepth(1));
+            Assertions.assertEquals(mainDepth + 1, helperDepth);
+        }
+
+        // A staggered helper really skips depth 2, so a search to depth 2 ends after depth 1
+        SearchResult result = new Search(Perft.TestPosition.KIWIPETE.createGame(), new TranspositionTable(1))
+                .iterate(ParallelSearch.firstDepth(1), 2, 0, 0);
+        Assertions.assertEquals(1, result.getDepth(), "Staggered helper searched depth 2");
+    }
+
+    @Test
+    @DisplayName("Stops When Asked")
+    public void stop() throws InterruptedException {
+        ParallelSearch search = new ParallelSearch(Perft.TestPosition.KIWIPETE.createGame(), 2);
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            search.stop();
+        });
+        stopper.start();
+
+        SearchResult result = search.search(Search.MAX_PLY - 1, 0, 0);
+        stopper.join();
+
+        Assertions.assertNotNull(result.getBestMove(), "Stopped search returned no move");
+    }
+}
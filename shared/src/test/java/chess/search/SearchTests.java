@@ -0,0 +1,85 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate in One")
+    public void mateInOne() {
+        // Back rank mate with the rook
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Search(game).search(4, 0, 0);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.getBestMove());
+        Assertions.assertEquals(Search.MATE_SCORE - 1, result.getScore(), "Mate in one not scored as mate");
+        Assertions.assertTrue(result.isMate());
+    }
+
+    @Test
+    @DisplayName("Captures a Hanging Queen")
+    public void winsMaterial() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Search(game).search(3, 0, 0);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.getBestMove());
+        Assertions.assertTrue(result.getScore() > 0, "Winning the queen should score well for white");
+    }
+
+    @Test
+    @DisplayName("Avoids a Defended Pawn")
+    public void quiescenceSeesRecapture() {
+        // Taking the pawn with the queen loses the queen to the recapture
+        ChessGame game = ChessGame.fromFen("4k3/2p5/3p4/8/8/8/8/3QK3 w - - 0 1");
+        SearchResult result = new Search(game).search(1, 0, 0);
+
+        Assertions.assertNotEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(6, 4), null), result.getBestMove(),
+                "Queen captured a defended pawn");
+    }
+
+    @Test
+    @DisplayName("Respects Node Limit and Leaves Game Unchanged")
+    public void limits() {
+        ChessGame game = new ChessGame();
+        String before = game.toFen();
+
+        SearchResult result = new Search(game).search(Search.MAX_PLY - 1, 0, 20_000);
+
+        Assertions.assertNotNull(result.getBestMove(), "No move returned when the node limit ran out");
+        Assertions.assertTrue(result.getNodes() <= 20_000, "Searched past the node limit");
+        Assertions.assertTrue(result.getDepth() >= 1);
+        Assertions.assertEquals(result.getBestMove(), result.getPrincipalVariation().get(0), "Line does not start with the best move");
+        Assertions.assertEquals(before, game.toFen(), "Search changed the game");
+    }
+
+    @Test
+    @DisplayName("Stopped Deep Start Falls Back to Depth 1")
+    public void stoppedDeepStart() {
+        ChessGame game = new ChessGame();
+        TranspositionTable table = new TranspositionTable(1);
+
+        // Starting at depth 4 with too few nodes to finish it still leaves depth 1 to play from
+        SearchResult result = new Search(game, table).iterate(4, 8, 0, 2_000);
+
+        Assertions.assertEquals(1, result.getDepth(), "Stopped iteration reported as complete");
+        Assertions.assertNotNull(result.getBestMove());
+
+        long entry = table.probe(game.getZobristKey());
+        Assertions.assertEquals(1, TranspositionTable.depth(entry), "Stopped root score stored in the table");
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void noMoves() {
+        ChessGame game = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Search(game).search(3, 0, 0);
+
+        Assertions.assertNull(result.getBestMove());
+        Assertions.assertEquals(-Search.MATE_SCORE, result.getScore());
+    }
+}
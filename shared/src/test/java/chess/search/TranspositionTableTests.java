@@ -0,0 +1,71 @@
+package chess.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stored Entry Read Back")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEF0L;
+
+        Assertions.assertEquals(0, table.probe(key), "Empty table returned an entry");
+
+        table.store(key, 0x7FFFF, -Search.MATE_SCORE + 3, 12, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(key);
+
+        Assertions.assertEquals(0x7FFFF, TranspositionTable.move(entry));
+        Assertions.assertEquals(-Search.MATE_SCORE + 3, TranspositionTable.score(entry));
+        Assertions.assertEquals(12, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0, table.probe(key ^ 1), "Different key matched the entry");
+    }
+
+    @Test
+    @DisplayName("Sized From Memory Budget")
+    public void capacity() {
+        // 16 bytes per entry, rounded down to a power of two
+        Assertions.assertEquals(65536, new TranspositionTable(1).getCapacity());
+        Assertions.assertEquals(131072, new TranspositionTable(3).getCapacity());
+    }
+
+    @Test
+    @DisplayName("Deeper Entries Kept Over Shallower Ones")
+    public void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+
+        // Three keys that land in the same bucket of two
+        long deep = 1;
+        long shallow = 2;
+        long newer = 3;
+        table.store(deep, 0, 0, 10, TranspositionTable.EXACT);
+        table.store(shallow, 0, 0, 2, TranspositionTable.EXACT);
+        table.store(newer, 0, 0, 5, TranspositionTable.EXACT);
+
+        Assertions.assertNotEquals(0, table.probe(deep), "Deepest entry was replaced");
+        Assertions.assertEquals(0, table.probe(shallow), "Shallowest entry was kept");
+        Assertions.assertNotEquals(0, table.probe(newer));
+
+        // After a new search starts, old entries are replaced first even when deeper
+        table.newSearch();
+        table.store(4, 0, 0, 1, TranspositionTable.EXACT);
+        table.store(5, 0, 0, 1, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(deep), "Entry from an old search was kept");
+    }
+
+    @Test
+    @DisplayName("Search Finds the Same Move With a Shared Table")
+    public void sharedTable() {
+        TranspositionTable table = new TranspositionTable(4);
+        chess.ChessGame game = chess.ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+
+        SearchResult first = new Search(game, table).search(4, 0, 0);
+        SearchResult second = new Search(game, table).search(4, 0, 0);
+
+        Assertions.assertEquals(first.getScore(), second.getScore(), "Reusing the table changed the score");
+        Assertions.assertTrue(second.getNodes() < first.getNodes(), "Reusing the table did not save any work");
+    }
+}